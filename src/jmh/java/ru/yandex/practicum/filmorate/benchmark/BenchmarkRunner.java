@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Запускает выбранные бенчмарки для нескольких чисел потоков и сохраняет результаты каждого прогона
+ * в JSON-файл {@code target/jmh/<метка>-t<потоки>.json}, пригодный для сравнения прогонов между собой.
+ * <p>
+ * Системные свойства: {@code threads} — список чисел потоков через запятую (по умолчанию {@code 1,4,16}),
+ * {@code label} — метка прогона (по умолчанию текущее время). Аргументы командной строки передаются JMH.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        String label = System.getProperty("label", String.valueOf(System.currentTimeMillis()));
+        Path output = Path.of("target", "jmh");
+        Files.createDirectories(output);
+        for (String threads : System.getProperty("threads", "1,4,16").split(",")) {
+            int count = Integer.parseInt(threads.trim());
+            new Runner(new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(count)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(output.resolve(label + "-t" + count + ".json").toString())
+                    .build())
+                    .run();
+        }
+    }
+}
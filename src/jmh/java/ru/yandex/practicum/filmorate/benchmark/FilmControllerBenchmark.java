@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikes;
+import ru.yandex.practicum.filmorate.storage.film.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.validation.FilmRules;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути {@link FilmController} без HTTP: добавление, обновление, получение всех фильмов
+ * и валидация — принятие корректного фильма и отказ некорректному.
+ * Контроллер собран так же, как в приложении, вместе с индексами.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FilmControllerBenchmark {
+
+    private static final int CACHE_SIZE = 10_000;
+    private static final int HOT_FILMS = 1_000;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private FilmController filmController;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FilmRangeIndex filmRangeIndex = new FilmRangeIndex();
+        FilmSearchIndex filmSearchIndex = new FilmSearchIndex();
+        EntityCache<Film> filmCache = new EntityCache<>("films", objectMapper.writerFor(Film.class), Film::getId,
+                CACHE_SIZE, meterRegistry);
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(List.of(filmRangeIndex, filmSearchIndex, filmCache));
+        filmController = new FilmController(filmStorage, new InMemoryUserStorage(), objectMapper, filmRangeIndex,
+                filmSearchIndex, new FilmLikes(), filmCache, FilmRules.compile(meterRegistry, false));
+        for (int i = 0; i < size; i++) {
+            filmController.addFilm(film(i));
+        }
+    }
+
+    @Benchmark
+    public Film addFilm() {
+        return filmController.addFilm(film(ThreadLocalRandom.current().nextInt()));
+    }
+
+    @Benchmark
+    public Film updateFilm() {
+        int index = ThreadLocalRandom.current().nextInt(size);
+        Film film = film(index + 1);
+        film.setId(index + 1L);
+        return filmController.updateFilm(film);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Collection<Film> getAllFilms() {
+        return filmController.getAllFilms(null, null);
+    }
+
+    @Benchmark
+    public Collection<Film> getFilmsPage() {
+        long after = ThreadLocalRandom.current().nextLong(size);
+        return filmController.getAllFilms(after, 100);
+    }
+
+    /**
+     * Небольшой набор часто запрашиваемых фильмов, который целиком помещается в кэш.
+     */
+    @Benchmark
+    public byte[] getHotFilm() {
+        return filmController.getFilm(1 + ThreadLocalRandom.current().nextInt(Math.min(size, HOT_FILMS)));
+    }
+
+    @Benchmark
+    public byte[] getAnyFilm() {
+        return filmController.getFilm(1 + ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public Object rejectInvalidFilm() {
+        Film film = film(0);
+        film.setReleaseDate(LocalDate.of(1800, 1, 1));
+        try {
+            return filmController.addFilm(film);
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+
+    static Film film(int seed) {
+        Film film = new Film();
+        film.setName("Film " + seed);
+        film.setDescription("Description of film number " + seed);
+        film.setReleaseDate(LocalDate.of(1900, 1, 1).plusDays(Math.floorMod(seed, 40_000)));
+        film.setDuration(1 + Math.floorMod(seed, 240));
+        return film;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikes;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Рейтинг популярных фильмов: чтение первых N из поддерживаемого рейтинга против сортировки всего каталога
+ * по числу лайков, а также лайки одного популярного фильма. Лайки распределены неравномерно: чем меньше ID
+ * фильма, тем больше у него лайков. Конкуренцию за один фильм видно при запуске с несколькими потоками
+ * ({@code -t 16} или {@code BenchmarkRunner} с {@code -Dthreads}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FilmLikesBenchmark {
+
+    private static final int USERS = 1_000_000;
+
+    @Param({"1000", "100000", "1000000"})
+    private int films;
+
+    private final AtomicLong sequence = new AtomicLong(USERS);
+    private FilmLikes filmLikes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filmLikes = new FilmLikes();
+        Random random = new Random(42);
+        for (int i = 0; i < films * 2; i++) {
+            // квадрат равномерной величины смещает лайки к фильмам с малыми ID
+            double position = random.nextDouble();
+            long filmId = 1 + (long) (position * position * films);
+            filmLikes.addLike(filmId, 1 + random.nextInt(USERS));
+        }
+    }
+
+    @Benchmark
+    public long[] popularTop10() {
+        return filmLikes.findPopular(10);
+    }
+
+    @Benchmark
+    public List<Long> popularBySorting() {
+        return LongStream.rangeClosed(1, films).boxed()
+                .sorted(Comparator.comparingInt((Long id) -> filmLikes.countLikes(id)).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(10)
+                .toList();
+    }
+
+    @Benchmark
+    public boolean likeHotFilm() {
+        return filmLikes.addLike(1, sequence.incrementAndGet());
+    }
+
+    @Benchmark
+    public boolean likeAndUnlikeRandomFilm() {
+        long filmId = 1 + ThreadLocalRandom.current().nextInt(films);
+        long userId = sequence.incrementAndGet();
+        return filmLikes.addLike(filmId, userId) && filmLikes.removeLike(filmId, userId);
+    }
+}
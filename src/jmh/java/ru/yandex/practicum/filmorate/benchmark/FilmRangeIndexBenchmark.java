@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск фильмов по диапазону дат релиза и продолжительности: вторичный индекс против полного перебора.
+ * Диапазоны подобраны так, чтобы результат был небольшим и не зависел от размера каталога.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FilmRangeIndexBenchmark {
+
+    private static final LocalDate FROM = LocalDate.of(2001, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2001, 3, 3);
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private InMemoryFilmStorage filmStorage;
+    private FilmRangeIndex filmRangeIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filmRangeIndex = new FilmRangeIndex();
+        filmStorage = new InMemoryFilmStorage(List.of(filmRangeIndex));
+        Random random = new Random(42);
+        long firstDay = LocalDate.of(1900, 1, 1).toEpochDay();
+        long lastDay = LocalDate.of(2024, 1, 1).toEpochDay();
+        for (int i = 0; i < size; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description");
+            film.setReleaseDate(LocalDate.ofEpochDay(firstDay + random.nextLong(lastDay - firstDay)));
+            film.setDuration(1 + random.nextInt(240));
+            filmStorage.add(film);
+        }
+    }
+
+    @Benchmark
+    public List<Long> releaseDateIndex() {
+        return filmRangeIndex.findReleasedBetween(FROM, TO, 1000);
+    }
+
+    @Benchmark
+    public List<Film> releaseDateScan() {
+        return filmStorage.findAll().stream()
+                .filter(film -> !film.getReleaseDate().isBefore(FROM) && !film.getReleaseDate().isAfter(TO))
+                .limit(1000)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Long> durationIndex() {
+        return filmRangeIndex.findDurationBetween(1, 1, 1000);
+    }
+
+    @Benchmark
+    public List<Film> durationScan() {
+        return filmStorage.findAll().stream()
+                .filter(film -> film.getDuration() <= 1)
+                .limit(1000)
+                .toList();
+    }
+}
@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraph;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Операции {@link FriendGraph} на графе со степенным распределением числа друзей, как в настоящих
+ * социальных сетях: у большинства пользователей несколько друзей, у редких «звезд» — десятки тысяч.
+ * <p>
+ * Граф строится по модели Чунга — Лу: вес пользователя берется из распределения Парето с показателем
+ * {@code alpha}, концы каждой связи выбираются пропорционально весам, средняя степень — {@code averageDegree}.
+ * Общие друзья считаются для случайной пары и для пары со «звездой»; для сравнения приведено пересечение
+ * через {@link HashSet} с упаковкой ID.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FriendGraphBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int users;
+
+    @Param("16")
+    private int averageDegree;
+
+    @Param("2.2")
+    private double alpha;
+
+    private FriendGraph friendGraph;
+    private long hub;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        double[] cumulativeWeight = new double[users];
+        double total = 0;
+        double maxWeight = 0;
+        for (int i = 0; i < users; i++) {
+            double weight = Math.pow(1 - random.nextDouble(), -1 / (alpha - 1));
+            if (weight > maxWeight) {
+                maxWeight = weight;
+                hub = i + 1;
+            }
+            total += weight;
+            cumulativeWeight[i] = total;
+        }
+
+        // связь упакована в long: меньший ID в старших 32 битах, поэтому после сортировки
+        // друзья каждого пользователя добавляются по возрастанию ID, то есть в конец массива
+        long[] edges = new long[(int) ((long) users * averageDegree / 2)];
+        int count = 0;
+        for (int i = 0; i < edges.length; i++) {
+            long first = pick(cumulativeWeight, random.nextDouble() * total);
+            long second = pick(cumulativeWeight, random.nextDouble() * total);
+            if (first != second) {
+                edges[count++] = Math.min(first, second) << 32 | Math.max(first, second);
+            }
+        }
+        Arrays.sort(edges, 0, count);
+        friendGraph = new FriendGraph();
+        for (int i = 0; i < count; i++) {
+            friendGraph.addFriends(edges[i] >>> 32, edges[i] & 0xFFFFFFFFL);
+        }
+        System.out.printf("%nПользователей: %d, связей: %d, друзей у «звезды»: %d%n",
+                users, count, friendGraph.countFriends(hub));
+    }
+
+    @Benchmark
+    public long[] commonFriendsRandomPair() {
+        return friendGraph.findCommonFriends(randomUser(), randomUser());
+    }
+
+    @Benchmark
+    public long[] commonFriendsWithHub() {
+        return friendGraph.findCommonFriends(randomUser(), hub);
+    }
+
+    @Benchmark
+    public Set<Long> commonFriendsWithHubHashSet() {
+        Set<Long> common = new HashSet<>();
+        for (long id : friendGraph.findFriends(randomUser())) {
+            common.add(id);
+        }
+        Set<Long> hubFriends = new HashSet<>();
+        for (long id : friendGraph.findFriends(hub)) {
+            hubFriends.add(id);
+        }
+        common.retainAll(hubFriends);
+        return common;
+    }
+
+    @Benchmark
+    public long[] suggestFriends() {
+        return friendGraph.suggestFriends(randomUser(), 10);
+    }
+
+    @Benchmark
+    public boolean addAndRemoveFriend() {
+        long user = randomUser();
+        long friend = randomUser();
+        if (user == friend) {
+            return false;
+        }
+        return friendGraph.addFriends(user, friend) && friendGraph.removeFriends(user, friend);
+    }
+
+    private long randomUser() {
+        return 1 + ThreadLocalRandom.current().nextInt(users);
+    }
+
+    private static long pick(double[] cumulativeWeight, double point) {
+        int index = Arrays.binarySearch(cumulativeWeight, point);
+        return (index >= 0 ? index : -index - 1) + 1;
+    }
+}
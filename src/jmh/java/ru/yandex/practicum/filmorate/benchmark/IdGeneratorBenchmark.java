@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает выдачу ID через {@link IdGenerator} с прежним поиском максимального ключа.
+ * Стоимость {@code maxScanNextId} растет линейно с размером коллекции, а {@code idGeneratorNext}
+ * и {@code storageAdd} не зависят от него.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IdGeneratorBenchmark {
+
+    @Param({"1000", "100000", "500000"})
+    private int size;
+
+    private Map<Long, Film> films;
+    private IdGenerator idGenerator;
+    private InMemoryFilmStorage filmStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        films = new HashMap<>();
+        for (long id = 1; id <= size; id++) {
+            films.put(id, new Film());
+        }
+        idGenerator = new IdGenerator(size);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpStorage() {
+        filmStorage = new InMemoryFilmStorage();
+        for (int i = 0; i < size; i++) {
+            filmStorage.add(film());
+        }
+    }
+
+    @Benchmark
+    public long maxScanNextId() {
+        long currentMaxId = films.keySet()
+                .stream()
+                .mapToLong(id -> id)
+                .max()
+                .orElse(0);
+        return ++currentMaxId;
+    }
+
+    @Benchmark
+    public long idGeneratorNext() {
+        return idGenerator.next();
+    }
+
+    @Benchmark
+    public Film storageAdd() {
+        return filmStorage.add(film());
+    }
+
+    private static Film film() {
+        Film film = new Film();
+        film.setName("Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        return film;
+    }
+}
@@ -0,0 +1,267 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный тест веб-слоя: сравнивает пропускную способность и хвостовые задержки при обслуживании
+ * запросов потоками платформы и виртуальными потоками.
+ * <p>
+ * Для каждого режима приложение запускается в этом же процессе на случайном порту, затем {@code connections}
+ * клиентов держат по одному keep-alive соединению и без пауз отправляют запросы: в основном
+ * {@code GET /films} и {@code GET /users} страницами, а доля {@code writes} процентов — {@code POST /films}.
+ * С включенным журналом ({@code persistence=true}) запись ждет {@code fsync}, и на этом ожидании
+ * режимы отличаются сильнее всего.
+ * <p>
+ * Параметры задаются системными свойствами: {@code connections} (10000), {@code warmup} (10s),
+ * {@code duration} (30s), {@code writes} (10), {@code films} (10000), {@code persistence} (true),
+ * {@code modes} (platform,virtual). Свойство {@code url} вместо запуска приложения направляет нагрузку
+ * на уже запущенный сервис.
+ * <p>
+ * Клиенты и сервер в одном процессе держат по два дескриптора на соединение, поэтому лимит открытых файлов
+ * ({@code ulimit -n}) должен быть больше {@code 2 * connections}.
+ */
+public final class LoadTestHarness {
+
+    private static final int CONNECTIONS = Integer.getInteger("connections", 10_000);
+    private static final Duration WARMUP = Duration.parse("PT" + System.getProperty("warmup", "10s"));
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("duration", "30s"));
+    private static final int WRITES_PERCENT = Integer.getInteger("writes", 10);
+    private static final int FILMS = Integer.getInteger("films", 10_000);
+    private static final boolean PERSISTENCE = Boolean.parseBoolean(System.getProperty("persistence", "true"));
+    private static final long ERROR_BACKOFF_MILLIS = 100;
+    private static final byte[] FILM_JSON = ("{\"name\":\"Load test\",\"description\":\"Description\","
+            + "\"releaseDate\":\"2000-01-01\",\"duration\":120}").getBytes(StandardCharsets.UTF_8);
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("url");
+        if (url != null) {
+            URI uri = URI.create(url);
+            print("external", run(new InetSocketAddress(uri.getHost(), uri.getPort())));
+            return;
+        }
+        for (String mode : System.getProperty("modes", "platform,virtual").split(",")) {
+            Path directory = Files.createTempDirectory("filmorate-load-test");
+            try (ConfigurableApplicationContext context = start(mode.trim(), directory)) {
+                preload(context.getBean(FilmStorage.class));
+                int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+                print(mode.trim(), run(new InetSocketAddress("localhost", port)));
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String mode, Path directory) {
+        return new SpringApplicationBuilder(FilmorateApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                        "server.tomcat.max-connections=" + (CONNECTIONS + 1_000),
+                        "server.tomcat.accept-count=" + CONNECTIONS,
+                        "filmorate.persistence.enabled=" + PERSISTENCE,
+                        "filmorate.persistence.directory=" + directory,
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    private static void preload(FilmStorage filmStorage) {
+        List<Film> films = new ArrayList<>(FILMS);
+        for (int i = 0; i < FILMS; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1).plusDays(i % 5_000));
+            film.setDuration(60 + i % 120);
+            films.add(film);
+        }
+        filmStorage.addAll(films);
+    }
+
+    private static Result run(InetSocketAddress address) throws InterruptedException {
+        Result result = new Result();
+        long measureFrom = System.nanoTime() + WARMUP.toNanos();
+        long measureTo = measureFrom + DURATION.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONNECTIONS; i++) {
+                clients.submit(() -> client(address, measureFrom, measureTo, result));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Соединения открываются постепенно в первой половине прогрева, чтобы не переполнить очередь accept.
+     */
+    private static void client(InetSocketAddress address, long measureFrom, long measureTo, Result result) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            Thread.sleep(random.nextLong(Math.max(1, WARMUP.toMillis() / 2)));
+        } catch (InterruptedException e) {
+            return;
+        }
+        while (System.nanoTime() < measureTo) {
+            try (Socket socket = new Socket()) {
+                socket.connect(address, 30_000);
+                socket.setSoTimeout(30_000);
+                socket.setTcpNoDelay(true);
+                OutputStream out = socket.getOutputStream();
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                long now;
+                while ((now = System.nanoTime()) < measureTo) {
+                    int status = request(out, in, random);
+                    long finished = System.nanoTime();
+                    if (now >= measureFrom) {
+                        result.record(finished - now, status);
+                    }
+                }
+            } catch (IOException e) {
+                if (System.nanoTime() >= measureFrom) {
+                    result.errors.increment();
+                }
+                try {
+                    Thread.sleep(ERROR_BACKOFF_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static int request(OutputStream out, InputStream in, ThreadLocalRandom random) throws IOException {
+        int kind = random.nextInt(100);
+        if (kind < WRITES_PERCENT) {
+            out.write(("POST /films HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n"
+                    + "Content-Length: " + FILM_JSON.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(FILM_JSON);
+        } else {
+            String path = kind < WRITES_PERCENT + (100 - WRITES_PERCENT) / 10
+                    ? "/users?limit=20"
+                    : "/films?limit=20&after=" + random.nextInt(FILMS);
+            out.write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+        out.flush();
+        return readResponse(in);
+    }
+
+    private static int readResponse(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        long contentLength = 0;
+        boolean chunked = false;
+        for (String header = readLine(in); !header.isEmpty(); header = readLine(in)) {
+            String lower = header.toLowerCase();
+            if (lower.startsWith("content-length:")) {
+                contentLength = Long.parseLong(lower.substring(15).trim());
+            } else if (lower.startsWith("transfer-encoding:") && lower.contains("chunked")) {
+                chunked = true;
+            }
+        }
+        if (!chunked) {
+            skip(in, contentLength);
+            return status;
+        }
+        for (long size = Long.parseLong(readLine(in).trim(), 16); size > 0;
+             size = Long.parseLong(readLine(in).trim(), 16)) {
+            skip(in, size);
+            readLine(in);
+        }
+        readLine(in);
+        return status;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b < 0) {
+                throw new IOException("Соединение закрыто сервером");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private static void skip(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new IOException("Соединение закрыто сервером");
+                }
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+
+    private static void print(String mode, Result result) {
+        long requests = result.requests.sum();
+        System.out.printf("%-9s соединений: %d, запросов: %d (%.0f в секунду), ошибок: %d, ответов не 2xx: %d%n",
+                mode, CONNECTIONS, requests, requests / (DURATION.toNanos() / 1e9), result.errors.sum(),
+                result.failed.sum());
+        System.out.printf("%-9s задержка, мс: p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n", mode,
+                result.percentile(0.5), result.percentile(0.9), result.percentile(0.99),
+                result.percentile(0.999), result.percentile(1.0));
+    }
+
+    /**
+     * Гистограмма задержек с шагом 10 мкс до 10 секунд; более долгие запросы попадают в последнюю корзину.
+     */
+    private static final class Result {
+        private static final long BUCKET_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+        private static final int BUCKETS = (int) (TimeUnit.SECONDS.toNanos(10) / BUCKET_NANOS);
+
+        private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        void record(long nanos, int status) {
+            latencies.incrementAndGet((int) Math.min(BUCKETS - 1, nanos / BUCKET_NANOS));
+            requests.increment();
+            if (status / 100 != 2) {
+                failed.increment();
+            }
+        }
+
+        double percentile(double fraction) {
+            long total = requests.sum();
+            long rank = Math.max(1, (long) Math.ceil(total * fraction));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += latencies.get(i);
+                if (seen >= rank) {
+                    return (i + 1) * BUCKET_NANOS / 1e6;
+                }
+            }
+            return 0;
+        }
+    }
+}
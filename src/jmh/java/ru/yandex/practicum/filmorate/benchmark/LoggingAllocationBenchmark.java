@@ -0,0 +1,128 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.controller.UserController;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikes;
+import ru.yandex.practicum.filmorate.storage.film.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.validation.FilmRules;
+import ru.yandex.practicum.filmorate.validation.UserRules;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Память, выделяемая на один запрос к контроллерам, при уровне логирования INFO и DEBUG.
+ * Запускать с профилировщиком {@code -prof gc} и смотреть на {@code gc.alloc.rate.norm}.
+ * Вместо консоли сообщения получает приемник, который только форматирует их, как это сделал бы энкодер.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingAllocationBenchmark {
+
+    private static final int SIZE = 10_000;
+
+    @Param({"INFO", "DEBUG"})
+    private String level;
+
+    private FilmController filmController;
+    private UserController userController;
+    private long users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        FormattingAppender appender = new FormattingAppender();
+        appender.setContext(context);
+        appender.start();
+        root.addAppender(appender);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        context.getLogger("ru.yandex.practicum.filmorate").setLevel(ch.qos.logback.classic.Level.toLevel(level));
+
+        FilmRangeIndex filmRangeIndex = new FilmRangeIndex();
+        FilmSearchIndex filmSearchIndex = new FilmSearchIndex();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EntityCache<Film> filmCache = new EntityCache<>("films", objectMapper.writer(), Film::getId, SIZE,
+                meterRegistry);
+        EntityCache<User> userCache = new EntityCache<>("users", objectMapper.writer(), User::getId, SIZE,
+                meterRegistry);
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(List.of(filmRangeIndex, filmSearchIndex, filmCache));
+        InMemoryUserStorage userStorage = new InMemoryUserStorage(List.of(userCache));
+        filmController = new FilmController(filmStorage, userStorage, objectMapper, filmRangeIndex, filmSearchIndex,
+                new FilmLikes(), filmCache, FilmRules.compile(meterRegistry, false));
+        userController = new UserController(userStorage, objectMapper, userCache, new FriendGraph(),
+                UserRules.compile(meterRegistry, false, Clock.systemDefaultZone()));
+        for (int i = 0; i < SIZE; i++) {
+            filmController.addFilm(FilmControllerBenchmark.film(i));
+            userController.addUser(user(++users));
+        }
+    }
+
+    @Benchmark
+    public Film updateFilm() {
+        int index = ThreadLocalRandom.current().nextInt(SIZE);
+        Film film = FilmControllerBenchmark.film(index);
+        film.setId(index + 1L);
+        return filmController.updateFilm(film);
+    }
+
+    @Benchmark
+    public User updateUser() {
+        long id = 1 + ThreadLocalRandom.current().nextInt(SIZE);
+        User user = user(id);
+        user.setId(id);
+        return userController.updateUser(user);
+    }
+
+    @Benchmark
+    public void addFilm(Blackhole blackhole) {
+        blackhole.consume(filmController.addFilm(FilmControllerBenchmark.film(SIZE)));
+    }
+
+    private static User user(long seed) {
+        User user = new User();
+        user.setEmail("user" + seed + "@mail.ru");
+        user.setLogin("user" + seed);
+        user.setName("Name");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    /**
+     * Форматирует сообщение и отбрасывает его.
+     */
+    private static final class FormattingAppender extends AppenderBase<ILoggingEvent> {
+
+        private volatile int sink;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            sink += event.getFormattedMessage().length();
+        }
+    }
+}
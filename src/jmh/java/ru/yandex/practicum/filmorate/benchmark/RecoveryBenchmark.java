@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.StorageVersion;
+import ru.yandex.practicum.filmorate.storage.film.FilmAggregates;
+import ru.yandex.practicum.filmorate.storage.film.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.persistence.PersistenceManager;
+import ru.yandex.practicum.filmorate.storage.persistence.PersistenceProperties;
+import ru.yandex.practicum.filmorate.storage.persistence.RecordType;
+import ru.yandex.practicum.filmorate.storage.persistence.WriteAheadEntityLog;
+import ru.yandex.practicum.filmorate.storage.persistence.WriteAheadLog;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserAggregates;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время запуска: восстановление каталога из снимка и хвоста журнала, в котором 10% записей.
+ * Хранилища восстанавливаются с теми же слушателями, что и в приложении: индексы, агрегаты и кэши.
+ * {@code recover} измеряет время до начала работы приложения, {@code recoverAndAwaitListeners} — до момента,
+ * когда индексы, заполняемые в фоне, догонят хранилища.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RecoveryBenchmark {
+
+    private static final long ENTITY_CACHE_SIZE = 10_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private Path directory;
+    private WriteAheadLog writeAheadLog;
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("recovery-benchmark");
+        try (WriteAheadLog log = WriteAheadLog.open(directory)) {
+            InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(List.of(),
+                    new WriteAheadEntityLog<>(log, RecordType.FILM, objectMapper.writer()));
+            PersistenceManager manager = manager(log, filmStorage, new InMemoryUserStorage());
+            int snapshotSize = size - size / 10;
+            filmStorage.addAll(films(snapshotSize));
+            manager.snapshot();
+            filmStorage.addAll(films(size - snapshotSize));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void openLog() throws IOException {
+        writeAheadLog = new WriteAheadLog(directory, Long.MAX_VALUE / 2);
+    }
+
+    /**
+     * Фоновое заполнение индексов и данные предыдущего вызова не должны попадать в замер следующего.
+     */
+    @TearDown(Level.Invocation)
+    public void closeLog() throws IOException {
+        filmStorage.awaitListeners();
+        userStorage.awaitListeners();
+        filmStorage = null;
+        userStorage = null;
+        writeAheadLog.close();
+        Files.deleteIfExists(directory.resolve(String.format("wal-%020d.log", Long.MAX_VALUE / 2)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public InMemoryFilmStorage recover() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        filmStorage = new InMemoryFilmStorage(List.of(new FilmRangeIndex(), new FilmSearchIndex(),
+                new FilmAggregates(), new StorageVersion<>(), new EntityCache<>("films",
+                        objectMapper.writerFor(Film.class), Film::getId, ENTITY_CACHE_SIZE, meterRegistry)));
+        userStorage = new InMemoryUserStorage(List.of(new UserAggregates(), new StorageVersion<>(),
+                new EntityCache<>("users", objectMapper.writerFor(User.class), User::getId, ENTITY_CACHE_SIZE,
+                        meterRegistry)));
+        PersistenceManager manager = manager(writeAheadLog, filmStorage, userStorage);
+        manager.recover();
+        manager.close();
+        return filmStorage;
+    }
+
+    @Benchmark
+    public InMemoryFilmStorage recoverAndAwaitListeners() throws IOException {
+        InMemoryFilmStorage recovered = recover();
+        recovered.awaitListeners();
+        userStorage.awaitListeners();
+        return recovered;
+    }
+
+    private PersistenceManager manager(WriteAheadLog log, InMemoryFilmStorage filmStorage,
+                                       InMemoryUserStorage userStorage) {
+        PersistenceProperties properties = new PersistenceProperties(directory, Long.MAX_VALUE, Duration.ofHours(1));
+        return new PersistenceManager(properties, log, filmStorage, userStorage, objectMapper);
+    }
+
+    private static List<Film> films(int count) {
+        List<Film> films = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description of film " + i);
+            film.setReleaseDate(LocalDate.of(1900, 1, 1).plusDays(i % 40_000));
+            film.setDuration(1 + i % 240);
+            films.add(film);
+        }
+        return films;
+    }
+}
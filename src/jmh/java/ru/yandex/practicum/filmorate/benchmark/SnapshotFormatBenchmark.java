@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.persistence.BinarySnapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение каталога из снимка: NDJSON через Jackson против двоичного снимка через {@code MappedByteBuffer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotFormatBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Param({"1000000"})
+    private int size;
+
+    private Path json;
+    private Path binary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Film> films = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Film film = new Film();
+            film.setId((long) i + 1);
+            film.setName("Film " + i);
+            film.setDescription("Description " + i % 1000);
+            film.setReleaseDate(LocalDate.of(1900, 1, 1).plusDays(i % 40_000));
+            film.setDuration(1 + i % 240);
+            films.add(film);
+        }
+        json = Files.createTempFile("snapshot", ".ndjson");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(json));
+             SequenceWriter writer = objectMapper.writerFor(Film.class).withRootValueSeparator("\n").writeValues(out)) {
+            writer.writeAll(films);
+        }
+        binary = Files.createTempFile("snapshot", ".bin");
+        BinarySnapshot.Writer writer = new BinarySnapshot.Writer();
+        writer.addFilms(films);
+        writer.writeTo(binary);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(json);
+        Files.delete(binary);
+    }
+
+    @Benchmark
+    public void readJson(Blackhole blackhole) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(Film.class);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(json));
+             MappingIterator<Film> films = reader.readValues(in)) {
+            while (films.hasNextValue()) {
+                blackhole.consume(films.nextValue());
+            }
+        }
+    }
+
+    @Benchmark
+    public void readBinary(Blackhole blackhole) throws IOException {
+        try (BinarySnapshot snapshot = BinarySnapshot.open(binary)) {
+            for (int i = 0; i < snapshot.filmCount(); i++) {
+                blackhole.consume(snapshot.film(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public int openBinary() throws IOException {
+        try (BinarySnapshot snapshot = BinarySnapshot.open(binary)) {
+            return snapshot.filmCount();
+        }
+    }
+}
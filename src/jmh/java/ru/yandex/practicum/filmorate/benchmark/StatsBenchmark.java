@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.controller.StatsController;
+import ru.yandex.practicum.filmorate.model.CatalogStats;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmAggregates;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserAggregates;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Статистика каталога: чтение поддерживаемых агрегатов против полного параллельного пересчета,
+ * а также стоимость поддержки агрегатов при обновлении фильма.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StatsBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private InMemoryFilmStorage filmStorage;
+    private StatsController statsController;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FilmAggregates filmAggregates = new FilmAggregates();
+        UserAggregates userAggregates = new UserAggregates();
+        filmStorage = new InMemoryFilmStorage(List.of(filmAggregates));
+        InMemoryUserStorage userStorage = new InMemoryUserStorage(List.of(userAggregates));
+        for (int i = 0; i < size; i++) {
+            filmStorage.add(FilmControllerBenchmark.film(i));
+            userStorage.add(user(i));
+        }
+        statsController = new StatsController(filmStorage, userStorage, filmAggregates, userAggregates);
+    }
+
+    @Benchmark
+    public CatalogStats aggregatedStats() {
+        return statsController.getStats();
+    }
+
+    @Benchmark
+    public CatalogStats.Check recomputeStats() {
+        return statsController.recomputeStats();
+    }
+
+    @Benchmark
+    public Object updateFilm() {
+        int seed = ThreadLocalRandom.current().nextInt(size);
+        Film film = FilmControllerBenchmark.film(seed + 1);
+        film.setId(1L + seed);
+        return filmStorage.update(film);
+    }
+
+    private static User user(int seed) {
+        User user = new User();
+        user.setEmail("user" + seed + "@mail.ru");
+        user.setLogin("user" + seed);
+        user.setName("Name");
+        user.setBirthday(LocalDate.of(1940, 1, 1).plusDays(seed % 25_000));
+        return user;
+    }
+}
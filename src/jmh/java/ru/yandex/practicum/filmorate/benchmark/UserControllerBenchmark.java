@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.controller.UserController;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.validation.UserRules;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Горячие пути {@link UserController} без HTTP: добавление, обновление, получение всех пользователей
+ * и валидация — принятие корректного пользователя и отказ некорректному.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserControllerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private UserController userController;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EntityCache<User> userCache = new EntityCache<>("users", objectMapper.writerFor(User.class), User::getId,
+                10_000, meterRegistry);
+        userController = new UserController(new InMemoryUserStorage(List.of(userCache)), objectMapper, userCache,
+                new FriendGraph(), UserRules.compile(meterRegistry, false, Clock.systemDefaultZone()));
+        for (int i = 0; i < size; i++) {
+            userController.addUser(user("user" + sequence.incrementAndGet()));
+        }
+    }
+
+    @Benchmark
+    public User addUser() {
+        return userController.addUser(user("user" + sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public User updateUser() {
+        long id = 1 + ThreadLocalRandom.current().nextLong(size);
+        User user = user("updated" + sequence.incrementAndGet());
+        user.setId(id);
+        return userController.updateUser(user);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Collection<User> getAllUsers() {
+        return userController.getAllUsers(null, null);
+    }
+
+    @Benchmark
+    public Object rejectInvalidUser() {
+        User user = user("invalid login");
+        try {
+            return userController.addUser(user);
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login.replace(' ', '.') + "@mail.ru");
+        user.setLogin(login);
+        user.setName("Name");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
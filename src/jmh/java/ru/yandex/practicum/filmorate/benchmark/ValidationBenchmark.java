@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.validation.FilmRules;
+import ru.yandex.practicum.filmorate.validation.UserRules;
+import ru.yandex.practicum.filmorate.validation.Validator;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Валидаторы фильма и пользователя отдельно от контроллеров: принятие корректной сущности и отказ
+ * некорректной. Некорректный фильм нарушает правила трех полей, поэтому в режиме {@code collectAll}
+ * отказ собирает все три сообщения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"false", "true"})
+    private boolean collectAll;
+
+    private Validator<Film, FilmRules.Rule> filmValidator;
+    private Validator<User, UserRules.Rule> userValidator;
+    private Film validFilm;
+    private Film invalidFilm;
+    private User validUser;
+    private User invalidUser;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        filmValidator = FilmRules.compile(meterRegistry, collectAll);
+        userValidator = UserRules.compile(meterRegistry, collectAll, Clock.systemDefaultZone());
+        validFilm = FilmControllerBenchmark.film(1);
+        invalidFilm = FilmControllerBenchmark.film(2);
+        invalidFilm.setDescription("a".repeat(FilmRules.MAX_DESCRIPTION_LENGTH + 1));
+        invalidFilm.setReleaseDate(LocalDate.of(1800, 1, 1));
+        invalidFilm.setDuration(0);
+        validUser = user("user");
+        invalidUser = user("invalid login");
+    }
+
+    @Benchmark
+    public Film acceptFilm() {
+        filmValidator.validate(validFilm);
+        return validFilm;
+    }
+
+    @Benchmark
+    public Object rejectFilm() {
+        try {
+            filmValidator.validate(invalidFilm);
+            return invalidFilm;
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public User acceptUser() {
+        userValidator.validate(validUser);
+        return validUser;
+    }
+
+    @Benchmark
+    public Object rejectUser() {
+        try {
+            userValidator.validate(invalidUser);
+            return invalidUser;
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin(login);
+        user.setName("Name");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.persistence.RecordType;
+import ru.yandex.practicum.filmorate.storage.persistence.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность журнала изменений с {@code fsync} на каждую пачку.
+ * С ростом числа пишущих потоков одна фиксация покрывает больше записей, и общая пропускная способность растет.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class WriteAheadLogBenchmark {
+
+    private static final byte[] FILM = ("{\"id\":1,\"name\":\"Film\",\"description\":\"Description\","
+            + "\"releaseDate\":\"2000-01-01\",\"duration\":120}").getBytes(StandardCharsets.UTF_8);
+
+    private Path directory;
+    private WriteAheadLog writeAheadLog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("wal-benchmark");
+        writeAheadLog = WriteAheadLog.open(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        writeAheadLog.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void append1Thread() {
+        writeAheadLog.append(RecordType.FILM, FILM);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void append8Threads() {
+        writeAheadLog.append(RecordType.FILM, FILM);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void append64Threads() {
+        writeAheadLog.append(RecordType.FILM, FILM);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.StorageVersion;
+
+import java.util.Map;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public StorageVersion<Film> filmVersion() {
+        return new StorageVersion<>();
+    }
+
+    @Bean
+    public StorageVersion<User> userVersion() {
+        return new StorageVersion<>();
+    }
+
+    @Bean
+    public EntityCache<Film> filmCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                       @Value("${filmorate.cache.entity-maximum-size}") long maximumSize) {
+        return new EntityCache<>("films", objectMapper.writerFor(Film.class), Film::getId, maximumSize, meterRegistry);
+    }
+
+    @Bean
+    public EntityCache<User> userCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                       @Value("${filmorate.cache.entity-maximum-size}") long maximumSize) {
+        return new EntityCache<>("users", objectMapper.writerFor(User.class), User::getId, maximumSize, meterRegistry);
+    }
+
+    @Bean
+    public CollectionCacheFilter collectionCacheFilter(StorageVersion<Film> filmVersion,
+                                                       StorageVersion<User> userVersion) {
+        return new CollectionCacheFilter(Map.of("/films", filmVersion, "/users", userVersion));
+    }
+}
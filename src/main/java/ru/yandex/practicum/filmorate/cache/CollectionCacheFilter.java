@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.yandex.practicum.filmorate.storage.StorageVersion;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Кэширует сериализованный ответ {@code GET} на коллекцию целиком, пока не изменилась версия хранилища.
+ * <p>
+ * ETag ответа — версия хранилища и время запуска приложения: после перезапуска версии начинаются заново,
+ * и ETag, выданный до перезапуска, не должен совпасть с новым. Запрос с совпадающим {@code If-None-Match}
+ * получает {@code 304}, а запрос без него при неизменной версии — сохраненные байты; в обоих случаях
+ * ни хранилище, ни Jackson не вызываются.
+ * Кэшируются только запросы без параметров и без NDJSON в {@code Accept}: страницы и потоковая выдача
+ * проходят мимо кэша.
+ * <p>
+ * Ответ сохраняется, только если версия не изменилась, пока он формировался. Хранилище увеличивает версию
+ * после записи, поэтому сохраненный ответ может оказаться новее своей версии, но не старше ее.
+ */
+public class CollectionCacheFilter extends OncePerRequestFilter {
+
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<String, Route> routes = new HashMap<>();
+
+    public CollectionCacheFilter(Map<String, StorageVersion<?>> versions) {
+        versions.forEach((path, version) -> routes.put(path, new Route(path.substring(1), version)));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod()) || request.getQueryString() != null) {
+            return true;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE)) {
+            return true;
+        }
+        return !routes.containsKey(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Route route = routes.get(request.getRequestURI());
+        long version = route.version.current();
+        String etag = route.etag(version);
+        response.setHeader(HttpHeaders.ETAG, etag);
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        CachedBody cached = route.cached.get();
+        if (cached != null && cached.version == version) {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(cached.body.length);
+            response.getOutputStream().write(cached.body);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && route.version.current() == version
+                && isJson(wrapper.getContentType())) {
+            route.cached.set(new CachedBody(version, wrapper.getContentAsByteArray()));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    /**
+     * Сравнивает ETag со списком из {@code If-None-Match} целиком и без учета {@code W/}, как требует слабое
+     * сравнение для {@code GET} (RFC 9110, 13.1.2); {@code *} совпадает с любым ETag.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isJson(String contentType) {
+        return contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+
+    private record CachedBody(long version, byte[] body) {
+    }
+
+    private static final class Route {
+        private final String name;
+        private final StorageVersion<?> version;
+        private final AtomicReference<CachedBody> cached = new AtomicReference<>();
+
+        Route(String name, StorageVersion<?> version) {
+            this.name = name;
+            this.version = version;
+        }
+
+        String etag(long version) {
+            return "\"" + name + "-" + EPOCH + "-" + version + "\"";
+        }
+    }
+}
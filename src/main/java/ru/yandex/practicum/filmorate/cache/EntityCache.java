@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ru.yandex.practicum.filmorate.storage.StorageListener;
+
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Ограниченный по размеру кэш сериализованных сущностей по ID (политика вытеснения W-TinyLFU из Caffeine).
+ * Запись сбрасывается, когда сущность обновляется или восстанавливается. Значение загружается и сериализуется
+ * вне блокировок Caffeine, чтобы не закреплять виртуальный поток за несущим на время загрузки. Если за это время
+ * прошел сброс, только что положенная запись сбрасывается повторно, поэтому устаревшие байты в кэше не остаются.
+ * <p>
+ * Попадания, промахи и вытеснения публикуются как метрики {@code cache.*} с тегом {@code cache=<name>}.
+ */
+public class EntityCache<T> implements StorageListener<T> {
+
+    private final Cache<Long, byte[]> cache;
+    private final ObjectWriter writer;
+    private final ToLongFunction<T> idGetter;
+    /**
+     * Счетчик сбросов: загрузка, во время которой он изменился, могла прочитать устаревшую сущность.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public EntityCache(String name, ObjectWriter writer, ToLongFunction<T> idGetter, long maximumSize,
+                       MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.writer = writer;
+        this.idGetter = idGetter;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /**
+     * @param loader поиск сущности в хранилище при промахе; отсутствующие сущности не кэшируются
+     */
+    public Optional<byte[]> get(long id, LongFunction<Optional<T>> loader) {
+        byte[] cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long seenInvalidations = invalidations.get();
+        Optional<byte[]> loaded = loader.apply(id).map(this::serialize);
+        if (loaded.isPresent()) {
+            cache.put(id, loaded.get());
+            if (invalidations.get() != seenInvalidations) {
+                cache.invalidate(id);
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public void added(T entity) {
+    }
+
+    @Override
+    public void updated(T oldEntity, T newEntity) {
+        invalidate(idGetter.applyAsLong(oldEntity));
+    }
+
+    @Override
+    public void restored(T oldEntity, T newEntity) {
+        if (oldEntity != null) {
+            invalidate(idGetter.applyAsLong(oldEntity));
+        }
+    }
+
+    private void invalidate(long id) {
+        invalidations.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    private byte[] serialize(T entity) {
+        try {
+            return writer.writeValueAsBytes(entity);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
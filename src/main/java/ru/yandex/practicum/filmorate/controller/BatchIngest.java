@@ -0,0 +1,191 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Пакетная загрузка сущностей из JSON-массива или NDJSON-потока.
+ * Тело запроса разбирается по одной записи, а в хранилище записи попадают пачками,
+ * для каждой из которых ID резервируются одним блоком.
+ */
+@Slf4j
+final class BatchIngest {
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private BatchIngest() {
+    }
+
+    /**
+     * @param atomic   если {@code true}, записи добавляются только когда все они прошли валидацию, и передаются
+     *                 в {@code inserter} одним вызовом; иначе некорректные записи пропускаются, а остальные
+     *                 добавляются пачками
+     * @param inserter в атомарном режиме должен при любой ошибке не сохранять ни одной записи
+     */
+    static <T> BatchResult ingest(ObjectReader reader, InputStream body, boolean atomic,
+                                  Consumer<T> validator, ChunkInserter<T> inserter) throws IOException {
+        Ingest<T> ingest = new Ingest<>(atomic, validator, inserter);
+        try (MappingIterator<T> items = reader.readValues(body)) {
+            while (items.hasNextValue()) {
+                ingest.accept(items.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            ingest.malformed(e);
+        }
+        return ingest.finish();
+    }
+
+    /**
+     * То же, что {@link #ingest(ObjectReader, InputStream, boolean, Consumer, ChunkInserter)}, но записи
+     * берутся из потока {@code items} по мере обработки: следующая запись запрашивается только
+     * после того, как предыдущая проверена и, если пачка заполнилась, сохранена.
+     */
+    static <T> Mono<BatchResult> ingest(Flux<T> items, boolean atomic,
+                                        Consumer<T> validator, ChunkInserter<T> inserter) {
+        return Mono.defer(() -> {
+            Ingest<T> ingest = new Ingest<>(atomic, validator, inserter);
+            return items.doOnNext(ingest::accept)
+                    .onErrorResume(JsonProcessingException.class, e -> {
+                        ingest.malformed(e);
+                        return Mono.empty();
+                    })
+                    .then(Mono.fromCallable(ingest::finish));
+        });
+    }
+
+    /**
+     * Записи JSON-массива или NDJSON-потока, разобранные по одной по запросу подписчика.
+     */
+    static <T> Flux<T> read(ObjectReader reader, InputStream body) {
+        return Flux.generate(() -> reader.<T>readValues(body), (MappingIterator<T> items, SynchronousSink<T> sink) -> {
+            try {
+                if (items.hasNextValue()) {
+                    sink.next(items.nextValue());
+                } else {
+                    sink.complete();
+                }
+            } catch (IOException e) {
+                sink.error(e);
+            }
+            return items;
+        }, items -> {
+            try {
+                items.close();
+            } catch (IOException ignored) {
+                // тело запроса закроет контейнер сервлетов
+            }
+        });
+    }
+
+    /**
+     * Состояние одной загрузки: записи проверяются по мере поступления и сохраняются пачками.
+     */
+    private static final class Ingest<T> {
+        private final boolean atomic;
+        private final Consumer<T> validator;
+        private final ChunkInserter<T> inserter;
+        private final BatchResult result = new BatchResult();
+        private final List<T> pending = new ArrayList<>();
+        private final List<Integer> pendingIndexes = new ArrayList<>();
+        private int index;
+        private int invalid;
+        private String firstInvalid;
+
+        Ingest(boolean atomic, Consumer<T> validator, ChunkInserter<T> inserter) {
+            this.atomic = atomic;
+            this.validator = validator;
+            this.inserter = inserter;
+        }
+
+        void accept(T item) {
+            try {
+                validator.accept(item);
+                pending.add(item);
+                pendingIndexes.add(index);
+            } catch (ValidationException e) {
+                if (invalid++ == 0) {
+                    firstInvalid = "запись " + index + ": " + e.getMessage();
+                }
+                reject(result, index, e.getMessage());
+            }
+            index++;
+            if (!atomic && pending.size() == CHUNK_SIZE) {
+                flush(result, pending, pendingIndexes, inserter);
+                pending.clear();
+                pendingIndexes.clear();
+            }
+        }
+
+        void malformed(JsonProcessingException e) {
+            reject(result, index, "Некорректный JSON: " + e.getOriginalMessage());
+        }
+
+        BatchResult finish() {
+            if (invalid > 0) {
+                log.debug("Пакетная загрузка: {} записей не прошли проверку, первая — {}", invalid, firstInvalid);
+            }
+            if (atomic) {
+                boolean valid = result.getRejected() == 0;
+                Map<Integer, String> errors = valid && !pending.isEmpty() ? inserter.insert(pending) : Map.of();
+                if (valid && errors.isEmpty()) {
+                    result.setAdded(pending.size());
+                    return result;
+                }
+                report(result, errors, pendingIndexes);
+                result.setRejected(result.getRejected() + pending.size() - errors.size());
+                return result;
+            }
+            for (int from = 0; from < pending.size(); from += CHUNK_SIZE) {
+                int to = Math.min(from + CHUNK_SIZE, pending.size());
+                flush(result, pending.subList(from, to), pendingIndexes.subList(from, to), inserter);
+            }
+            return result;
+        }
+    }
+
+    private static <T> void flush(BatchResult result, List<T> chunk, List<Integer> indexes,
+                                  ChunkInserter<T> inserter) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> errors = inserter.insert(chunk);
+        result.setAdded(result.getAdded() + chunk.size() - errors.size());
+        report(result, errors, indexes);
+    }
+
+    private static void report(BatchResult result, Map<Integer, String> errors, List<Integer> indexes) {
+        errors.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(error -> reject(result, indexes.get(error.getKey()), error.getValue()));
+    }
+
+    private static void reject(BatchResult result, int index, String message) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new BatchResult.ItemError(index, message));
+        }
+    }
+
+    @FunctionalInterface
+    interface ChunkInserter<T> {
+        /**
+         * @return сообщения об ошибках для несохраненных записей по их позиции в пачке
+         */
+        Map<Integer, String> insert(List<T> chunk);
+    }
+}
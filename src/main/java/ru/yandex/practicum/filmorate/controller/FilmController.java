@@ -1,101 +1,237 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikes;
+import ru.yandex.practicum.filmorate.storage.film.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.validation.FilmRules;
+import ru.yandex.practicum.filmorate.validation.Validator;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 @RestController
 @RequestMapping("/films")
 @Slf4j
 public class FilmController {
 
-    private final Map<Long, Film> films = new HashMap<>();
-    private static final LocalDate MIN_RELEASE_DATE = LocalDate.of(1895, 12, 28);
-    private static final int MAX_DESCRIPTION_LENGTH = 200;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ObjectMapper objectMapper;
+    private final FilmRangeIndex filmRangeIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final FilmLikes filmLikes;
+    private final EntityCache<Film> filmCache;
+    private final Validator<Film, FilmRules.Rule> filmValidator;
+    private static final int DEFAULT_POPULAR_COUNT = 10;
+
+    public FilmController(FilmStorage filmStorage, UserStorage userStorage, ObjectMapper objectMapper,
+                          FilmRangeIndex filmRangeIndex, FilmSearchIndex filmSearchIndex, FilmLikes filmLikes,
+                          EntityCache<Film> filmCache, Validator<Film, FilmRules.Rule> filmValidator) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.objectMapper = objectMapper;
+        this.filmRangeIndex = filmRangeIndex;
+        this.filmSearchIndex = filmSearchIndex;
+        this.filmLikes = filmLikes;
+        this.filmCache = filmCache;
+        this.filmValidator = filmValidator;
+    }
 
     @GetMapping
-    public Collection<Film> getAllFilms() {
+    public Collection<Film> getAllFilms(@RequestParam(required = false) Long after,
+                                        @RequestParam(required = false) Integer limit) {
         log.debug("Получен запрос на получение всех фильмов");
-        return films.values();
+        if (after == null && limit == null) {
+            return filmStorage.findAll();
+        }
+        int pageLimit = Pagination.limit(limit);
+        return Pagination.page(filmStorage.findPage(Pagination.after(after), pageLimit), pageLimit, Film::getId);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFilms(@RequestParam(required = false) Long after) {
+        log.debug("Получен запрос на потоковую выдачу фильмов");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(Pagination.ndjson(objectMapper.writerFor(Film.class), Pagination.after(after),
+                        filmStorage::findPage, Film::getId));
+    }
+
+    @GetMapping(path = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getFilm(@PathVariable long id) {
+        log.debug("Получен запрос на получение фильма с ID {}", id);
+        return filmCache.get(id, filmStorage::findById)
+                .orElseThrow(() -> new NotFoundException("Фильм с ID " + id + " не найден"));
+    }
+
+    @GetMapping("/by-release-date")
+    public List<Film> getFilmsReleasedBetween(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                              @RequestParam(required = false) Integer limit) {
+        log.debug("Получен запрос на получение фильмов, вышедших с {} по {}", from, to);
+        filmStorage.awaitListeners();
+        List<Long> ids = filmRangeIndex.findReleasedBetween(from, to, Pagination.limit(limit));
+        return findFilms(ids, film -> !film.getReleaseDate().isBefore(from) && !film.getReleaseDate().isAfter(to));
+    }
+
+    @GetMapping("/by-duration")
+    public List<Film> getFilmsByDuration(@RequestParam(defaultValue = "1") int min,
+                                         @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int max,
+                                         @RequestParam(required = false) Integer limit) {
+        log.debug("Получен запрос на получение фильмов продолжительностью от {} до {} минут", min, max);
+        filmStorage.awaitListeners();
+        List<Long> ids = filmRangeIndex.findDurationBetween(min, max, Pagination.limit(limit));
+        return findFilms(ids, film -> film.getDuration() >= min && film.getDuration() <= max);
+    }
+
+    @GetMapping("/search")
+    public List<Film> searchFilms(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        log.debug("Получен запрос на поиск фильмов: '{}'", q);
+        if (q.isBlank()) {
+            throw new ValidationException("Поисковый запрос не может быть пустым");
+        }
+        filmStorage.awaitListeners();
+        return findFilms(filmSearchIndex.search(q, Pagination.limit(limit)), film -> true);
+    }
+
+    /**
+     * Сначала идут фильмы из рейтинга лайков; если их меньше {@code count}, список дополняется фильмами
+     * без лайков по возрастанию ID. Фильмов с лайками в этом случае меньше {@code count}, поэтому
+     * пропускаемых при дополнении фильмов тоже немного.
+     */
+    @GetMapping("/popular")
+    public List<Film> getPopularFilms(@RequestParam(required = false) Integer count) {
+        log.debug("Получен запрос на получение {} популярных фильмов", count);
+        int limit = count == null ? DEFAULT_POPULAR_COUNT : Pagination.limit(count);
+        long[] ranked = filmLikes.findPopular(limit);
+        List<Film> popular = new ArrayList<>(limit);
+        for (long id : ranked) {
+            filmStorage.findById(id).ifPresent(popular::add);
+        }
+        Arrays.sort(ranked);
+        for (List<Film> page = filmStorage.findPage(0, limit); popular.size() < limit && !page.isEmpty();
+             page = filmStorage.findPage(page.get(page.size() - 1).getId(), limit)) {
+            for (Film film : page) {
+                if (popular.size() == limit) {
+                    break;
+                }
+                if (filmLikes.countLikes(film.getId()) == 0 && Arrays.binarySearch(ranked, film.getId()) < 0) {
+                    popular.add(film);
+                }
+            }
+        }
+        return popular;
+    }
+
+    @PutMapping("/{id}/like/{userId}")
+    public void addLike(@PathVariable long id, @PathVariable long userId) {
+        log.debug("Получен запрос на добавление лайка фильму {} от пользователя {}", id, userId);
+        checkLike(id, userId);
+        if (filmLikes.addLike(id, userId)) {
+            log.info("Пользователь с ID {} поставил лайк фильму с ID {}", userId, id);
+        }
+    }
+
+    @DeleteMapping("/{id}/like/{userId}")
+    public void removeLike(@PathVariable long id, @PathVariable long userId) {
+        log.debug("Получен запрос на удаление лайка фильму {} от пользователя {}", id, userId);
+        checkLike(id, userId);
+        if (filmLikes.removeLike(id, userId)) {
+            log.info("Пользователь с ID {} убрал лайк фильму с ID {}", userId, id);
+        }
+    }
+
+    private void checkLike(long id, long userId) {
+        if (!filmStorage.contains(id)) {
+            throw new NotFoundException("Фильм с ID " + id + " не найден");
+        }
+        if (!userStorage.contains(userId)) {
+            throw new NotFoundException("Пользователь с ID " + userId + " не найден");
+        }
     }
 
     @PostMapping
     public Film addFilm(@RequestBody Film film) {
         log.debug("Получен запрос на добавление фильма");
         validateFilm(film);
-        film.setId(getNextId());
-        films.put(film.getId(), film);
+        filmStorage.add(film);
         log.info("Фильм с ID {} успешно добавлен. Название: '{}'", film.getId(), film.getName());
         return film;
     }
 
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BatchResult addFilms(InputStream body,
+                                @RequestParam(defaultValue = "false") boolean atomic) throws IOException {
+        log.debug("Получен запрос на пакетное добавление фильмов");
+        BatchResult result = BatchIngest.ingest(objectMapper.readerFor(Film.class), body, atomic,
+                this::validateFilm, films -> {
+                    filmStorage.addAll(films);
+                    return Map.of();
+                });
+        log.info("Пакетное добавление фильмов завершено. Добавлено: {}, отклонено: {}",
+                result.getAdded(), result.getRejected());
+        return result;
+    }
+
     @PutMapping
     public Film updateFilm(@RequestBody Film newFilm) {
-        log.debug("Получен запрос на обновление информации о фильме с ID" + newFilm.getId());
+        log.debug("Получен запрос на обновление информации о фильме с ID {}", newFilm.getId());
         if (newFilm.getId() == null) {
             log.error("Попытка обновления фильма без указания ID");
             throw new ValidationException("ID не может быть пустым");
         }
-        if (!films.containsKey(newFilm.getId())) {
-            log.warn("Попытка обновления несуществующего фильма с ID: {}", newFilm.getId());
-            throw new ValidationException("Фильм с ID " + newFilm.getId() + " не найден");
+        if (!filmStorage.contains(newFilm.getId())) {
+            throw filmNotFound(newFilm.getId());
         }
         validateFilm(newFilm);
 
-        Film oldFilm = films.get(newFilm.getId());
-        oldFilm.setName(newFilm.getName());
-        oldFilm.setDescription(newFilm.getDescription());
-        oldFilm.setDuration(newFilm.getDuration());
-        oldFilm.setReleaseDate(newFilm.getReleaseDate());
+        Film updatedFilm = filmStorage.update(newFilm)
+                .orElseThrow(() -> filmNotFound(newFilm.getId()));
         log.info("Фильм с ID {} успешно обновлен", newFilm.getId());
-        return oldFilm;
+        return updatedFilm;
     }
 
-    private void validateFilm(Film film) {
-        log.debug("Начата валидация фильма {}", film);
-        if (film.getName() == null || film.getName().isBlank()) {
-            log.debug("Валидация не прошла: название фильма пустое");
-            throw new ValidationException("Название не может быть пустым");
-        }
-        if (film.getDescription() == null) {
-            log.debug("Валидация не прошла: описание фильма null");
-            throw new ValidationException("Описание не может быть пустым");
-        }
-        if (film.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
-            log.debug("Валидация не прошла: лимит символов превышен");
-            throw new ValidationException("Описание не может быть больше " + MAX_DESCRIPTION_LENGTH + " символов");
-        }
-        if (film.getReleaseDate() == null) {
-            log.debug("Валидация не прошла: дата релиза null");
-            throw new ValidationException("Дата релиза не может быть пустой");
-        }
-        if (film.getReleaseDate().isBefore((MIN_RELEASE_DATE))) {
-            log.debug("Валидация не прошла: дата релиза указана неверно");
-            throw new ValidationException("Дата релиза не может быть раньше " + MIN_RELEASE_DATE);
-        }
-        if (film.getDuration() == null) {
-            log.debug("Валидация не прошла: продолжительность фильма null");
-            throw new ValidationException("Продолжительность фильма не может быть пустой");
-        }
-        if (film.getDuration() <= 0) {
-            log.debug("Валидация не прошла: продолжительность фильма отрицательная или равна 0");
-            throw new ValidationException("Продолжительность фильма не может быть отрицательным числом или 0");
-        }
-        log.debug("Валидация фильма прошла успешно");
+    /**
+     * Индекс обновляется после записи в хранилище, поэтому найденные по нему фильмы проверяются повторно.
+     */
+    private List<Film> findFilms(List<Long> ids, Predicate<Film> filter) {
+        return ids.stream()
+                .map(filmStorage::findById)
+                .flatMap(Optional::stream)
+                .filter(filter)
+                .toList();
+    }
+
+    private ValidationException filmNotFound(Long id) {
+        log.warn("Попытка обновления несуществующего фильма с ID: {}", id);
+        return new ValidationException("Фильм с ID " + id + " не найден");
     }
 
-    private long getNextId() {
-        long currentMaxId = films.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+    private void validateFilm(Film film) {
+        log.debug("Начата валидация фильма с ID {}", film.getId());
+        filmValidator.validate(film);
+        log.debug("Валидация фильма прошла успешно");
     }
 }
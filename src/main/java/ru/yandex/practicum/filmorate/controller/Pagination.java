@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Общие правила постраничной выдачи коллекций по курсору {@code ?after=<id>&limit=N}.
+ */
+final class Pagination {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    private Pagination() {
+    }
+
+    static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ValidationException("Параметр limit должен быть от 1 до " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    static long after(Long after) {
+        return after == null ? 0 : after;
+    }
+
+    /**
+     * Страница коллекции. Если страница полная, в ответ добавляется заголовок
+     * {@code Link: <...?after=<id>&limit=N>; rel="next"} со ссылкой на следующую страницу.
+     */
+    static <T> List<T> page(List<T> page, int limit, ToLongFunction<T> idGetter) {
+        if (page.size() == limit && RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes
+                attributes && attributes.getResponse() != null) {
+            String next = ServletUriComponentsBuilder.fromRequest(attributes.getRequest())
+                    .replaceQueryParam("after", idGetter.applyAsLong(page.get(page.size() - 1)))
+                    .replaceQueryParam("limit", limit)
+                    .toUriString();
+            attributes.getResponse().setHeader(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return page;
+    }
+
+    /**
+     * Тело ответа в формате NDJSON: сущности читаются из хранилища страницами и пишутся в сокет по одной,
+     * поэтому расход памяти не зависит от размера коллекции.
+     */
+    static <T> StreamingResponseBody ndjson(ObjectWriter writer, long after, PageLoader<T> loader,
+                                            ToLongFunction<T> idGetter) {
+        return out -> {
+            try (SequenceWriter sequence = writer.withRootValueSeparator("\n").writeValues(out)) {
+                List<T> page = loader.load(after, STREAM_PAGE_SIZE);
+                if (page.isEmpty()) {
+                    return;
+                }
+                while (!page.isEmpty()) {
+                    for (T entity : page) {
+                        sequence.write(entity);
+                    }
+                    sequence.flush();
+                    long cursor = idGetter.applyAsLong(page.get(page.size() - 1));
+                    page = page.size() < STREAM_PAGE_SIZE ? List.of() : loader.load(cursor, STREAM_PAGE_SIZE);
+                }
+                out.write('\n');
+            }
+        };
+    }
+
+    /**
+     * Коллекция как {@link Flux}: очередная страница читается из хранилища, только когда подписчик
+     * запросил записи сверх уже выданных, поэтому медленный клиент не заставляет буферизовать коллекцию.
+     */
+    static <T> Flux<T> flux(long after, PageLoader<T> loader, ToLongFunction<T> idGetter) {
+        return Flux.<List<T>, Cursor>generate(() -> new Cursor(after, false), (cursor, sink) -> {
+                    if (cursor.last()) {
+                        sink.complete();
+                        return cursor;
+                    }
+                    List<T> page = loader.load(cursor.after(), STREAM_PAGE_SIZE);
+                    if (page.isEmpty()) {
+                        sink.complete();
+                        return cursor;
+                    }
+                    sink.next(page);
+                    // неполная страница — последняя
+                    return new Cursor(idGetter.applyAsLong(page.get(page.size() - 1)), page.size() < STREAM_PAGE_SIZE);
+                })
+                .flatMapIterable(page -> page, 1);
+    }
+
+    /**
+     * Состояние потока: ID последней выданной записи и признак того, что выданная страница была последней.
+     * Признак хранится отдельно, потому что любое значение {@code after}, в том числе отрицательное, —
+     * допустимый курсор.
+     */
+    private record Cursor(long after, boolean last) {
+    }
+
+    @FunctionalInterface
+    interface PageLoader<T> {
+        List<T> load(long afterId, int limit);
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.validation.FilmRules;
+import ru.yandex.practicum.filmorate.validation.Validator;
+
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Потоковая выдача и загрузка фильмов на Reactor. Выдача учитывает скорость клиента: следующая страница
+ * читается из хранилища только после того, как предыдущая записана в ответ.
+ * Выдача идет только в NDJSON: каждая запись пишется в ответ сразу, а не собирается в список целиком.
+ * Проверка фильмов та же, что в {@link FilmController}.
+ */
+@RestController
+@RequestMapping("/reactive/films")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveFilmController {
+
+    private final FilmStorage filmStorage;
+    private final ObjectMapper objectMapper;
+    private final Validator<Film, FilmRules.Rule> filmValidator;
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Film> getFilms(@RequestParam(required = false) Long after) {
+        log.debug("Получен запрос на потоковую выдачу фильмов");
+        return Pagination.flux(Pagination.after(after), filmStorage::findPage, Film::getId);
+    }
+
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<BatchResult> addFilms(InputStream body, @RequestParam(defaultValue = "false") boolean atomic) {
+        log.debug("Получен запрос на потоковое пакетное добавление фильмов");
+        return BatchIngest.ingest(BatchIngest.<Film>read(objectMapper.readerFor(Film.class), body), atomic,
+                        filmValidator::validate, films -> {
+                            filmStorage.addAll(films);
+                            return Map.of();
+                        })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(result -> log.info("Потоковое добавление фильмов завершено. Добавлено: {}, отклонено: {}",
+                        result.getAdded(), result.getRejected()));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.validation.UserRules;
+import ru.yandex.practicum.filmorate.validation.Validator;
+
+import java.io.InputStream;
+
+/**
+ * Потоковая выдача и загрузка пользователей на Reactor, см. {@link ReactiveFilmController}.
+ */
+@RestController
+@RequestMapping("/reactive/users")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final UserStorage userStorage;
+    private final ObjectMapper objectMapper;
+    private final Validator<User, UserRules.Rule> userValidator;
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<User> getUsers(@RequestParam(required = false) Long after) {
+        log.debug("Получен запрос на потоковую выдачу пользователей");
+        return Pagination.flux(Pagination.after(after), userStorage::findPage, User::getId);
+    }
+
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<BatchResult> addUsers(InputStream body, @RequestParam(defaultValue = "false") boolean atomic) {
+        log.debug("Получен запрос на потоковое пакетное добавление пользователей");
+        return BatchIngest.ingest(BatchIngest.<User>read(objectMapper.readerFor(User.class), body), atomic,
+                        this::prepareNewUser,
+                        atomic ? userStorage::addAllAtomically : userStorage::addAll)
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(result -> log.info(
+                        "Потоковое добавление пользователей завершено. Добавлено: {}, отклонено: {}",
+                        result.getAdded(), result.getRejected()));
+    }
+
+    /**
+     * Проверяет пользователя и, как {@link UserController}, подставляет логин вместо пустого имени.
+     */
+    private void prepareNewUser(User user) {
+        userValidator.validate(user);
+        if (user.getName() == null || user.getName().isBlank()) {
+            user.setName(user.getLogin());
+        }
+    }
+}
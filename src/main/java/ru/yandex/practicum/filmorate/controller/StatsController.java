@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.CatalogStats;
+import ru.yandex.practicum.filmorate.storage.film.FilmAggregates;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserAggregates;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Year;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/stats")
+@Slf4j
+public class StatsController {
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FilmAggregates filmAggregates;
+    private final UserAggregates userAggregates;
+
+    public StatsController(FilmStorage filmStorage, UserStorage userStorage, FilmAggregates filmAggregates,
+                           UserAggregates userAggregates) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.filmAggregates = filmAggregates;
+        this.userAggregates = userAggregates;
+    }
+
+    /**
+     * Статистика по агрегатам, которые хранилища обновляют при каждой записи. Время ответа не зависит
+     * от числа фильмов и пользователей.
+     */
+    @GetMapping
+    public CatalogStats getStats() {
+        log.debug("Получен запрос на получение статистики");
+        awaitAggregates();
+        return toStats(filmAggregates, userAggregates);
+    }
+
+    /**
+     * Пересчитывает статистику по всем данным и сравнивает ее с агрегатами. Пересчет обходит все фильмы
+     * и всех пользователей, поэтому предназначен для проверки, а не для дашбордов.
+     */
+    @GetMapping("/recompute")
+    public CatalogStats.Check recomputeStats() {
+        log.debug("Получен запрос на пересчет статистики");
+        awaitAggregates();
+        CatalogStats aggregated = toStats(filmAggregates, userAggregates);
+        CatalogStats recomputed = toStats(FilmAggregates.recompute(filmStorage.findAll()),
+                UserAggregates.recompute(userStorage.findAll()));
+        boolean drift = !aggregated.equals(recomputed);
+        if (drift) {
+            log.warn("Агрегаты статистики расходятся с пересчетом: {} против {}", aggregated, recomputed);
+        }
+        return new CatalogStats.Check(aggregated, recomputed, drift);
+    }
+
+    /**
+     * После восстановления данных агрегаты догоняют хранилища в фоне; до этого статистика неполная.
+     */
+    private void awaitAggregates() {
+        filmStorage.awaitListeners();
+        userStorage.awaitListeners();
+    }
+
+    private CatalogStats toStats(FilmAggregates films, UserAggregates users) {
+        TreeMap<Integer, Long> filmsByDuration = films.countByDuration();
+        long filmCount = 0;
+        long totalDuration = 0;
+        for (Map.Entry<Integer, Long> entry : filmsByDuration.entrySet()) {
+            filmCount += entry.getValue();
+            totalDuration += (long) entry.getKey() * entry.getValue();
+        }
+
+        int currentYear = Year.now().getValue();
+        TreeMap<Integer, Long> usersByAge = new TreeMap<>();
+        long userCount = 0;
+        for (Map.Entry<Integer, Long> entry : users.countByBirthYear().entrySet()) {
+            usersByAge.put(currentYear - entry.getKey(), entry.getValue());
+            userCount += entry.getValue();
+        }
+
+        return new CatalogStats(filmCount, films.countByYear(),
+                filmCount == 0 ? null : (double) totalDuration / filmCount,
+                percentile(filmsByDuration, filmCount, 50),
+                percentile(filmsByDuration, filmCount, 90),
+                percentile(filmsByDuration, filmCount, 99),
+                userCount, usersByAge);
+    }
+
+    /**
+     * Перцентиль по ближайшему рангу: наименьшее значение, до которого включительно набирается
+     * не меньше {@code percent} процентов записей.
+     */
+    private static Integer percentile(TreeMap<Integer, Long> counts, long total, int percent) {
+        long rank = Math.max(1, (total * percent + 99) / 100);
+        long seen = 0;
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            seen += entry.getValue();
+            if (seen >= rank) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+}
@@ -1,43 +1,108 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.validation.UserRules;
+import ru.yandex.practicum.filmorate.validation.Validator;
 
-import java.time.LocalDate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 @RestController
 @RequestMapping("/users")
 @Slf4j
 public class UserController {
 
-    private final Map<Long, User> users = new HashMap<>();
+    private final UserStorage userStorage;
+    private final ObjectMapper objectMapper;
+    private final EntityCache<User> userCache;
+    private final FriendGraph friendGraph;
+    private final Validator<User, UserRules.Rule> userValidator;
+
+    public UserController(UserStorage userStorage, ObjectMapper objectMapper, EntityCache<User> userCache,
+                          FriendGraph friendGraph, Validator<User, UserRules.Rule> userValidator) {
+        this.userStorage = userStorage;
+        this.objectMapper = objectMapper;
+        this.userCache = userCache;
+        this.friendGraph = friendGraph;
+        this.userValidator = userValidator;
+    }
 
     @GetMapping
-    public Collection<User> getAllUsers() {
+    public Collection<User> getAllUsers(@RequestParam(required = false) Long after,
+                                        @RequestParam(required = false) Integer limit) {
         log.debug("Получен запрос на получение всех пользователей");
-        return users.values();
+        if (after == null && limit == null) {
+            return userStorage.findAll();
+        }
+        int pageLimit = Pagination.limit(limit);
+        return Pagination.page(userStorage.findPage(Pagination.after(after), pageLimit), pageLimit, User::getId);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(required = false) Long after) {
+        log.debug("Получен запрос на потоковую выдачу пользователей");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(Pagination.ndjson(objectMapper.writerFor(User.class), Pagination.after(after),
+                        userStorage::findPage, User::getId));
+    }
+
+    @GetMapping(path = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getUser(@PathVariable long id) {
+        log.debug("Получен запрос на получение пользователя с ID {}", id);
+        return userCache.get(id, userStorage::findById)
+                .orElseThrow(() -> new NotFoundException("Пользователь с ID " + id + " не найден"));
+    }
+
+    @GetMapping("/by-email")
+    public User getUserByEmail(@RequestParam String email) {
+        log.debug("Получен запрос на поиск пользователя по email");
+        return userStorage.findByEmail(email)
+                .orElseThrow(() -> new NotFoundException("Пользователь с email " + email + " не найден"));
+    }
+
+    @GetMapping("/by-login")
+    public User getUserByLogin(@RequestParam String login) {
+        log.debug("Получен запрос на поиск пользователя по логину {}", login);
+        return userStorage.findByLogin(login)
+                .orElseThrow(() -> new NotFoundException("Пользователь с логином " + login + " не найден"));
     }
 
     @PostMapping
     public User addUser(@RequestBody User user) {
         log.debug("Получен запрос на добавление нового пользователя");
-        validateUser(user);
-        user.setId(getNextId());
-
-        if (user.getName() == null || user.getName().isBlank()) {
-            user.setName(user.getLogin());
-        }
-
-        users.put(user.getId(), user);
+        prepareNewUser(user);
+        userStorage.add(user);
         log.info("Новый пользователь с id {} успешно добавлен. Имя пользователя {}", user.getId(), user.getName());
         return user;
     }
 
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BatchResult addUsers(InputStream body,
+                                @RequestParam(defaultValue = "false") boolean atomic) throws IOException {
+        log.debug("Получен запрос на пакетное добавление пользователей");
+        BatchResult result = BatchIngest.ingest(objectMapper.readerFor(User.class), body, atomic,
+                this::prepareNewUser, atomic ? userStorage::addAllAtomically : userStorage::addAll);
+        log.info("Пакетное добавление пользователей завершено. Добавлено: {}, отклонено: {}",
+                result.getAdded(), result.getRejected());
+        return result;
+    }
+
     @PutMapping
     public User updateUser(@RequestBody User newUser) {
         log.debug("Получен запрос на обновление информации о пользователе {}", newUser.getId());
@@ -46,53 +111,104 @@ public class UserController {
             throw new ValidationException("ID не может быть пустым");
         }
 
-        if (!users.containsKey(newUser.getId())) {
-            log.warn("Попытка обновления информации о несуществующем пользователе с ID {}", newUser.getId());
-            throw new ValidationException("Пользователь с ID " + newUser.getId() + " не найден");
+        if (!userStorage.contains(newUser.getId())) {
+            throw userNotFound(newUser.getId());
         }
 
         validateUser(newUser);
-        User oldUser = users.get(newUser.getId());
-        oldUser.setLogin(newUser.getLogin());
-        oldUser.setEmail(newUser.getEmail());
-        oldUser.setBirthday(newUser.getBirthday());
 
         if (newUser.getName() == null || newUser.getName().isBlank()) {
-            oldUser.setName(newUser.getLogin());
-        } else {
-            oldUser.setName(newUser.getName());
+            newUser.setName(newUser.getLogin());
         }
+
+        User updatedUser = userStorage.update(newUser)
+                .orElseThrow(() -> userNotFound(newUser.getId()));
         log.info("Информация о пользователе с ID {} успешно обновлена", newUser.getId());
-        return oldUser;
+        return updatedUser;
     }
 
-    private void validateUser(User user) {
-        log.debug("Началась валидация пользователя {}", user);
-        if (user.getEmail() == null || user.getEmail().isBlank() || !user.getEmail().contains("@")) {
-            log.debug("Валидация не прошла: Email пустой или не содержит @");
-            throw new ValidationException("Email не должен быть пустым и содержать @");
+    @PutMapping("/{id}/friends/{friendId}")
+    public void addFriend(@PathVariable long id, @PathVariable long friendId) {
+        log.debug("Получен запрос на добавление в друзья: пользователь {}, друг {}", id, friendId);
+        checkFriendPair(id, friendId);
+        if (friendGraph.addFriends(id, friendId)) {
+            log.info("Пользователи с ID {} и {} теперь друзья", id, friendId);
+        }
+    }
+
+    @DeleteMapping("/{id}/friends/{friendId}")
+    public void removeFriend(@PathVariable long id, @PathVariable long friendId) {
+        log.debug("Получен запрос на удаление из друзей: пользователь {}, друг {}", id, friendId);
+        checkFriendPair(id, friendId);
+        if (friendGraph.removeFriends(id, friendId)) {
+            log.info("Пользователи с ID {} и {} больше не друзья", id, friendId);
         }
-        if (user.getLogin() == null || user.getLogin().isBlank() || user.getLogin().contains(" ")) {
-            log.debug("Валидация не прошла: Логин пустой или содержит пробелы");
-            throw new ValidationException("Логин не может быть пустым и содержать пробелы");
+    }
+
+    @GetMapping("/{id}/friends")
+    public List<User> getFriends(@PathVariable long id,
+                                 @RequestParam(required = false) Long after,
+                                 @RequestParam(required = false) Integer limit) {
+        log.debug("Получен запрос на получение друзей пользователя с ID {}", id);
+        requireUser(id);
+        if (after == null && limit == null) {
+            return findUsers(friendGraph.findFriends(id));
         }
-        if (user.getBirthday() == null) {
-            log.debug("Валидация не прошла: Дата рождения null");
-            throw new ValidationException("Дата рождения не может быть пустой");
+        return findUsers(friendGraph.findFriends(id, Pagination.after(after), Pagination.limit(limit)));
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}")
+    public List<User> getCommonFriends(@PathVariable long id, @PathVariable long otherId) {
+        log.debug("Получен запрос на получение общих друзей пользователей с ID {} и {}", id, otherId);
+        requireUser(id);
+        requireUser(otherId);
+        return findUsers(friendGraph.findCommonFriends(id, otherId));
+    }
+
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable long id, @RequestParam(required = false) Integer limit) {
+        log.debug("Получен запрос на рекомендации друзей для пользователя с ID {}", id);
+        requireUser(id);
+        return findUsers(friendGraph.suggestFriends(id, Pagination.limit(limit)));
+    }
+
+    private void checkFriendPair(long id, long friendId) {
+        if (id == friendId) {
+            throw new ValidationException("Пользователь не может добавить в друзья самого себя");
         }
-        if (user.getBirthday().isAfter(LocalDate.now())) {
-            log.debug("Валидация не прошла: Дата рождения указана неверно");
-            throw new ValidationException("Дата рождения не может быть в будущем");
+        requireUser(id);
+        requireUser(friendId);
+    }
+
+    private void requireUser(long id) {
+        if (!userStorage.contains(id)) {
+            throw new NotFoundException("Пользователь с ID " + id + " не найден");
+        }
+    }
+
+    private List<User> findUsers(long[] ids) {
+        List<User> users = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            userStorage.findById(id).ifPresent(users::add);
+        }
+        return users;
+    }
+
+    private ValidationException userNotFound(Long id) {
+        log.warn("Попытка обновления информации о несуществующем пользователе с ID {}", id);
+        return new ValidationException("Пользователь с ID " + id + " не найден");
+    }
+
+    private void prepareNewUser(User user) {
+        validateUser(user);
+        if (user.getName() == null || user.getName().isBlank()) {
+            user.setName(user.getLogin());
         }
-        log.debug("Валидация прошла успешно");
     }
 
-    private long getNextId() {
-        long currentMaxId = users.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+    private void validateUser(User user) {
+        log.debug("Началась валидация пользователя с ID {}", user.getId());
+        userValidator.validate(user);
+        log.debug("Валидация прошла успешно");
     }
 }
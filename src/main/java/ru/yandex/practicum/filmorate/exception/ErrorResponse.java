@@ -0,0 +1,10 @@
+package ru.yandex.practicum.filmorate.exception;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ErrorResponse {
+    String error;
+}
@@ -1,7 +1,11 @@
 package ru.yandex.practicum.filmorate.exception;
 
+/**
+ * Ошибка в данных запроса. Исключение не заполняет стек вызовов: оно описывает ошибку клиента,
+ * стек для нее не нужен, а его заполнение было основной стоимостью отклонения запроса.
+ */
 public class ValidationException extends RuntimeException {
     public ValidationException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+/**
+ * Размеры хранилищ. Значение читается только при сборе метрик.
+ */
+@Component
+@RequiredArgsConstructor
+public class StorageMetrics implements MeterBinder {
+
+    public static final String METRIC_NAME = "filmorate.storage.size";
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_NAME, filmStorage, FilmStorage::size)
+                .description("Количество записей в хранилище")
+                .tag("entity", "film")
+                .register(registry);
+        Gauge.builder(METRIC_NAME, userStorage, UserStorage::size)
+                .description("Количество записей в хранилище")
+                .tag("entity", "user")
+                .register(registry);
+    }
+}
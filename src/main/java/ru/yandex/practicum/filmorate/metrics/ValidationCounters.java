@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Locale;
+
+/**
+ * Счетчики отказов валидации, по одному на каждое правило из перечисления {@code E}.
+ * Все счетчики регистрируются заранее, поэтому учет отказа — это обращение к массиву по ordinal,
+ * без поиска в реестре и без выделения памяти.
+ */
+public final class ValidationCounters<E extends Enum<E>> {
+
+    public static final String METRIC_NAME = "filmorate.validation.failures";
+
+    private final Counter[] counters;
+
+    public ValidationCounters(MeterRegistry registry, String entity, Class<E> rules) {
+        E[] constants = rules.getEnumConstants();
+        counters = new Counter[constants.length];
+        for (E rule : constants) {
+            counters[rule.ordinal()] = Counter.builder(METRIC_NAME)
+                    .description("Количество запросов, не прошедших валидацию")
+                    .tag("entity", entity)
+                    .tag("rule", rule.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+    }
+
+    public void increment(E rule) {
+        counters[rule.ordinal()].increment();
+    }
+}
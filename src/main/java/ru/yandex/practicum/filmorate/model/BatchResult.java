@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итог пакетной загрузки: сколько записей добавлено и почему были отклонены остальные.
+ * Список ошибок ограничен, полное число отклоненных записей хранится в {@code rejected}.
+ */
+@Data
+public class BatchResult {
+    int added;
+    int rejected;
+    List<ItemError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemError {
+        int index;
+        String message;
+    }
+}
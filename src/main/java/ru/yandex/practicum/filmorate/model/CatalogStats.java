@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Сводная статистика каталога. Продолжительность — в минутах, перцентили считаются по ближайшему рангу;
+ * если фильмов нет, поля продолжительности равны {@code null}. Возраст пользователя — число лет,
+ * которое ему исполняется в текущем году.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogStats {
+    long films;
+    Map<Integer, Long> filmsByYear;
+    Double averageDuration;
+    Integer medianDuration;
+    Integer p90Duration;
+    Integer p99Duration;
+    long users;
+    Map<Integer, Long> usersByAge;
+
+    /**
+     * Статистика по поддерживаемым агрегатам и пересчитанная заново по всем данным.
+     * {@code drift} показывает, что они расходятся; при одновременной записи расхождение может быть временным.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Check {
+        CatalogStats aggregated;
+        CatalogStats recomputed;
+        boolean drift;
+    }
+}
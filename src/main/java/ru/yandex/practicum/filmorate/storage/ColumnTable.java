@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+
+/**
+ * Таблица из нескольких колонок {@code int}, строка которой — ID сущности. Колонки разбиты на блоки
+ * по {@value #CHUNK_SIZE} строк, поэтому рост таблицы не копирует уже записанные данные, а блок выделяется
+ * только под реально встречающиеся ID. Наличие строки хранится отдельным битовым массивом.
+ * <p>
+ * Запись не потокобезопасна и упорядочивается хранилищем. Чтение при одновременной записи может вернуть
+ * неверные значения или бросить исключение, но не зацикливается; хранилище в этом случае повторяет
+ * чтение под блокировкой.
+ */
+public final class ColumnTable {
+
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final long MAX_ID = ((long) Integer.MAX_VALUE << CHUNK_BITS) - 1;
+
+    private final int columns;
+    /**
+     * Блоки по номеру: {@code chunks[номер][колонка][строка в блоке]}.
+     */
+    private int[][][] chunks = new int[0][][];
+    private long[][] present = new long[0][];
+    private long maxId;
+
+    public ColumnTable(int columns) {
+        this.columns = columns;
+    }
+
+    public boolean isPresent(long id) {
+        if (id <= 0 || id > maxId) {
+            return false;
+        }
+        long[] bits = present[(int) (id >>> CHUNK_BITS)];
+        int row = (int) (id & CHUNK_MASK);
+        return bits != null && (bits[row >>> 6] & 1L << row) != 0;
+    }
+
+    public int get(long id, int column) {
+        return chunks[(int) (id >>> CHUNK_BITS)][column][(int) (id & CHUNK_MASK)];
+    }
+
+    /**
+     * Записывает значение, выделяя блок при необходимости. Строка становится видимой после {@link #markPresent}.
+     */
+    public void set(long id, int column, int value) {
+        chunk(id)[column][(int) (id & CHUNK_MASK)] = value;
+    }
+
+    public void markPresent(long id) {
+        chunk(id);
+        int row = (int) (id & CHUNK_MASK);
+        present[(int) (id >>> CHUNK_BITS)][row >>> 6] |= 1L << row;
+        maxId = Math.max(maxId, id);
+    }
+
+    /**
+     * @return наименьший ID присутствующей строки больше {@code afterId} или 0, если таких строк нет
+     */
+    public long nextPresent(long afterId) {
+        long id = Math.max(afterId, 0) + 1;
+        while (id <= maxId) {
+            long[] bits = present[(int) (id >>> CHUNK_BITS)];
+            if (bits == null) {
+                id = (id | CHUNK_MASK) + 1;
+                continue;
+            }
+            int row = (int) (id & CHUNK_MASK);
+            long word = bits[row >>> 6] & -1L << row;
+            if (word != 0) {
+                return (id & ~63L) + Long.numberOfTrailingZeros(word);
+            }
+            id = (id | 63) + 1;
+        }
+        return 0;
+    }
+
+    private int[][] chunk(long id) {
+        if (id <= 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("ID " + id + " вне допустимого диапазона");
+        }
+        int index = (int) (id >>> CHUNK_BITS);
+        if (index >= chunks.length) {
+            int length = Math.max(index + 1, chunks.length * 2);
+            chunks = Arrays.copyOf(chunks, length);
+            present = Arrays.copyOf(present, length);
+        }
+        if (chunks[index] == null) {
+            chunks[index] = new int[columns][CHUNK_SIZE];
+            present[index] = new long[CHUNK_SIZE / 64];
+        }
+        return chunks[index];
+    }
+}
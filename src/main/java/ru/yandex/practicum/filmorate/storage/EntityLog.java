@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.storage;
+
+/**
+ * Журнал, в который хранилище записывает новое состояние сущности до того, как изменение станет видно.
+ * Запись — отдельный шаг хранилища, а не слушатель: если она не удалась, изменение не применяется.
+ */
+public interface EntityLog<T> {
+
+    /**
+     * Записывает сущность и затем выполняет {@code apply} — применение изменения в памяти.
+     * Если запись не удалась, {@code apply} не выполняется, а исключение передается вызывающему.
+     */
+    void append(T entity, Runnable apply);
+
+    /**
+     * Журнал без записи: изменение применяется сразу.
+     */
+    static <T> EntityLog<T> none() {
+        return (entity, apply) -> apply.run();
+    }
+}
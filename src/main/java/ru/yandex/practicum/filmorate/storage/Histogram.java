@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Число записей по целочисленному ключу (году, продолжительности). Ключи из ожидаемого диапазона
+ * [{@code min}, {@code max}] считаются в массиве атомарных счетчиков, редкие ключи вне его — в упорядоченной карте,
+ * поэтому изменение стоит O(1), а снимок — O(max - min) независимо от числа записей.
+ */
+public class Histogram {
+
+    private final int min;
+    private final AtomicLongArray counts;
+    /**
+     * Счетчики ключей вне диапазона; ключ удаляется, когда его счетчик обнуляется, чтобы карта не росла
+     * от ключей, которых уже нет.
+     */
+    private final ConcurrentSkipListMap<Integer, Long> outliers = new ConcurrentSkipListMap<>();
+
+    public Histogram(int min, int max) {
+        this.min = min;
+        this.counts = new AtomicLongArray(max - min + 1);
+    }
+
+    public void add(int key) {
+        change(key, 1);
+    }
+
+    public void remove(int key) {
+        change(key, -1);
+    }
+
+    /**
+     * Добавляет к гистограмме счетчики другой гистограммы с тем же диапазоном.
+     */
+    public void addAll(Histogram other) {
+        for (int i = 0; i < other.counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        other.outliers.forEach(this::change);
+    }
+
+    /**
+     * Возвращает ненулевые счетчики по возрастанию ключа. Изменения во время снятия снимка
+     * могут попасть в него частично.
+     */
+    public TreeMap<Integer, Long> snapshot() {
+        TreeMap<Integer, Long> snapshot = new TreeMap<>();
+        snapshot.putAll(outliers);
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                snapshot.put(min + i, count);
+            }
+        }
+        return snapshot;
+    }
+
+    private void change(int key, long delta) {
+        long index = (long) key - min;
+        if (index >= 0 && index < counts.length()) {
+            counts.addAndGet((int) index, delta);
+        } else if (delta != 0) {
+            outliers.merge(key, delta, (count, change) -> count + change == 0 ? null : count + change);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Генератор последовательных ID для сущностей одного типа.
+ * Выдача ID выполняется за O(1) без блокировок и без создания объектов,
+ * поэтому стоимость вставки не зависит от размера хранилища.
+ */
+public class IdGenerator {
+
+    private final AtomicLong lastId;
+
+    public IdGenerator() {
+        this(0);
+    }
+
+    public IdGenerator(long lastId) {
+        this.lastId = new AtomicLong(lastId);
+    }
+
+    public long next() {
+        return lastId.incrementAndGet();
+    }
+
+    /**
+     * Резервирует непрерывный блок из {@code count} ID.
+     *
+     * @return первый ID блока; блок занимает ID от него до {@code first + count - 1}
+     */
+    public long reserve(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Размер блока должен быть положительным: " + count);
+        }
+        return lastId.getAndAdd(count) + 1;
+    }
+
+    /**
+     * Гарантирует, что следующий выданный ID будет больше {@code id}.
+     * Используется, чтобы продолжить нумерацию после загрузки уже существующих данных.
+     */
+    public void advanceTo(long id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+
+    public long lastId() {
+        return lastId.get();
+    }
+}
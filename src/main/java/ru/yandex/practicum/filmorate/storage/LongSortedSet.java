@@ -0,0 +1,211 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасное множество ID на отсортированном массиве {@code long} без упаковки в {@link Long}.
+ * Занимает около 8 байт на элемент. ID обычно добавляются по возрастанию, и такая вставка — запись в конец
+ * массива. Остальные ID копятся в небольшом отсортированном буфере размером около корня из числа элементов
+ * и вливаются в массив одним слиянием, когда буфер заполнится или множество понадобится прочитать целиком,
+ * поэтому вставка в середину стоит O(√n) в среднем, а не сдвига половины массива.
+ */
+public class LongSortedSet {
+
+    private static final long[] EMPTY = new long[0];
+    private static final int MIN_PENDING = 16;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long[] values = EMPTY;
+    private int size;
+    /**
+     * ID, добавленные не в конец массива и еще не влитые в него; по возрастанию.
+     */
+    private long[] pending = EMPTY;
+    private int pendingSize;
+
+    /**
+     * @return {@code true}, если элемента не было в множестве
+     */
+    public boolean add(long value) {
+        lock.lock();
+        try {
+            if ((size == 0 || value > values[size - 1])
+                    && (pendingSize == 0 || value > pending[pendingSize - 1])) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+                }
+                values[size++] = value;
+                return true;
+            }
+            if (Arrays.binarySearch(values, 0, size, value) >= 0) {
+                return false;
+            }
+            int index = Arrays.binarySearch(pending, 0, pendingSize, value);
+            if (index >= 0) {
+                return false;
+            }
+            if (pendingSize == pending.length) {
+                mergePending();
+                int capacity = Math.max(MIN_PENDING, (int) Math.sqrt(size));
+                if (pending.length < capacity) {
+                    pending = new long[capacity];
+                }
+                index = -1;
+            }
+            int insertAt = -index - 1;
+            System.arraycopy(pending, insertAt, pending, insertAt + 1, pendingSize - insertAt);
+            pending[insertAt] = value;
+            pendingSize++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true}, если элемент был в множестве
+     */
+    public boolean remove(long value) {
+        lock.lock();
+        try {
+            int pendingIndex = Arrays.binarySearch(pending, 0, pendingSize, value);
+            if (pendingIndex >= 0) {
+                System.arraycopy(pending, pendingIndex + 1, pending, pendingIndex, pendingSize - pendingIndex - 1);
+                pendingSize--;
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            if (size < values.length >> 2) {
+                values = Arrays.copyOf(values, Math.max(size << 1, 4));
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean contains(long value) {
+        lock.lock();
+        try {
+            return Arrays.binarySearch(values, 0, size, value) >= 0
+                    || Arrays.binarySearch(pending, 0, pendingSize, value) >= 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size + pendingSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает не более {@code limit} элементов больше {@code after} по возрастанию.
+     */
+    public long[] range(long after, int limit) {
+        lock.lock();
+        try {
+            mergePending();
+            int index = Arrays.binarySearch(values, 0, size, after);
+            int from = index >= 0 ? index + 1 : -index - 1;
+            return Arrays.copyOfRange(values, from, from + Math.min(limit, size - from));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Пересечение двух множеств. Копируется только меньшее из них, а его элементы ищутся в большем
+     * под его блокировкой, поэтому пересечение с большим множеством не копирует его целиком.
+     *
+     * @return общие элементы по возрастанию
+     */
+    public static long[] intersection(LongSortedSet first, LongSortedSet second) {
+        LongSortedSet smaller = first.size() <= second.size() ? first : second;
+        LongSortedSet larger = smaller == first ? second : first;
+        return larger.retain(smaller.toArray());
+    }
+
+    /**
+     * Возвращает отсортированную копию элементов.
+     */
+    public long[] toArray() {
+        lock.lock();
+        try {
+            mergePending();
+            return Arrays.copyOf(values, size);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Оставляет из отсортированного массива {@code candidates} только элементы множества. Поиск идет
+     * экспоненциальными шагами от предыдущей найденной позиции, поэтому стоит O(m log(n / m)) для m кандидатов:
+     * почти линейное слияние при близких размерах и бинарный поиск, когда кандидатов намного меньше.
+     */
+    private long[] retain(long[] candidates) {
+        lock.lock();
+        try {
+            mergePending();
+            long[] common = new long[Math.min(candidates.length, size)];
+            int count = 0;
+            int from = 0;
+            for (long candidate : candidates) {
+                from = gallop(candidate, from);
+                if (from == size) {
+                    break;
+                }
+                if (values[from] == candidate) {
+                    common[count++] = candidate;
+                    from++;
+                }
+            }
+            return Arrays.copyOf(common, count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Вливает буфер в массив одним проходом с конца, без временного массива, если хватает места.
+     */
+    private void mergePending() {
+        if (pendingSize == 0) {
+            return;
+        }
+        int total = size + pendingSize;
+        if (total > values.length) {
+            values = Arrays.copyOf(values, Math.max(total, size + (size >> 1)));
+        }
+        int from = size - 1;
+        int fromPending = pendingSize - 1;
+        for (int to = total - 1; fromPending >= 0; to--) {
+            values[to] = from >= 0 && values[from] > pending[fromPending] ? values[from--] : pending[fromPending--];
+        }
+        size = total;
+        pendingSize = 0;
+    }
+
+    /**
+     * @return индекс первого элемента не меньше {@code value}, начиная с {@code from}
+     */
+    private int gallop(long value, int from) {
+        int bound = 1;
+        while (from + bound <= size && values[from + bound - 1] < value) {
+            bound <<= 1;
+        }
+        int index = Arrays.binarySearch(values, from + (bound >> 1), Math.min(from + bound, size), value);
+        return index >= 0 ? index : -index - 1;
+    }
+}
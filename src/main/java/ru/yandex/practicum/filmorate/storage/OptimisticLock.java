@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Блокировка для структур, которые меняются на месте, например {@link ColumnTable} и {@link StringPool}.
+ * Чтение сначала выполняется оптимистично без блокировки; если за это время была запись или чтение
+ * бросило исключение из-за несогласованного состояния, оно повторяется под блокировкой чтения.
+ * Читающий код поэтому должен быть без побочных эффектов и не должен зацикливаться на любых данных.
+ */
+public class OptimisticLock {
+
+    private final StampedLock lock = new StampedLock();
+
+    public <R> R read(Supplier<R> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public <R> R write(Supplier<R> writer) {
+        long stamp = lock.writeLock();
+        try {
+            return writer.get();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Строит {@link ConcurrentSkipListMap} из сущностей, уже упорядоченных по ID. Конструктор от {@link SortedMap}
+ * собирает список за O(n) без сравнения ключей, а вставки по одной стоят O(log n) каждая.
+ */
+public final class SkipListBuilder {
+
+    private SkipListBuilder() {
+    }
+
+    /**
+     * @param entities сущности со строго возрастающими ID
+     */
+    public static <T> ConcurrentSkipListMap<Long, T> fromSorted(List<T> entities, ToLongFunction<T> idGetter) {
+        return new ConcurrentSkipListMap<>(new SortedView<>(entities, idGetter));
+    }
+
+    /**
+     * Представление списка в виде упорядоченного отображения; поддерживает только то, что нужно конструктору.
+     */
+    private static final class SortedView<T> extends AbstractMap<Long, T> implements SortedMap<Long, T> {
+        private final List<T> entities;
+        private final ToLongFunction<T> idGetter;
+
+        SortedView(List<T> entities, ToLongFunction<T> idGetter) {
+            this.entities = entities;
+            this.idGetter = idGetter;
+        }
+
+        @Override
+        public Set<Map.Entry<Long, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<Long, T>> iterator() {
+                    Iterator<T> iterator = entities.iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<Long, T> next() {
+                            T entity = iterator.next();
+                            return new SimpleImmutableEntry<>(idGetter.applyAsLong(entity), entity);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return entities.size();
+                }
+            };
+        }
+
+        @Override
+        public Comparator<? super Long> comparator() {
+            return null;
+        }
+
+        @Override
+        public SortedMap<Long, T> subMap(Long fromKey, Long toKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<Long, T> headMap(Long toKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<Long, T> tailMap(Long fromKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Long firstKey() {
+            return idGetter.applyAsLong(entities.get(0));
+        }
+
+        @Override
+        public Long lastKey() {
+            return idGetter.applyAsLong(entities.get(entities.size() - 1));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Упорядоченный вторичный индекс: пары (значение, ID) в отсортированном конкурентном множестве.
+ * Поиск по диапазону значений стоит O(log n + k), где k — размер результата.
+ */
+public class SortedIndex {
+
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+    public void add(long value, long id) {
+        entries.add(new Entry(value, id));
+    }
+
+    /**
+     * Добавляет пары ({@code values[i]}, {@code ids[i]}). Пары сначала сортируются в массиве, а затем вставляются
+     * по возрастанию: такая вставка идет по краю списка и обходится намного дешевле вставок в случайном порядке.
+     */
+    public void addAll(long[] values, long[] ids) {
+        Entry[] sorted = new Entry[values.length];
+        for (int i = 0; i < values.length; i++) {
+            sorted[i] = new Entry(values[i], ids[i]);
+        }
+        Arrays.sort(sorted);
+        entries.addAll(Arrays.asList(sorted));
+    }
+
+    public void remove(long value, long id) {
+        entries.remove(new Entry(value, id));
+    }
+
+    /**
+     * Возвращает не более {@code limit} ID, значения которых лежат в диапазоне [{@code from}, {@code to}],
+     * по возрастанию значения, а при равных значениях — по возрастанию ID.
+     */
+    public List<Long> findRange(long from, long to, int limit) {
+        List<Long> ids = new ArrayList<>();
+        if (from > to) {
+            return ids;
+        }
+        for (Entry entry : entries.subSet(new Entry(from, Long.MIN_VALUE), true, new Entry(to, Long.MAX_VALUE), true)) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(entry.id());
+        }
+        return ids;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private record Entry(long value, long id) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int result = Long.compare(value, other.value);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+}
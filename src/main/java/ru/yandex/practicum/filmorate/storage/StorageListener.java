@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.List;
+
+/**
+ * Получает уведомления об изменениях в хранилище. Хранилище вызывает слушателей под блокировкой записи
+ * изменяемой сущности, поэтому для одного ID уведомления приходят строго в порядке изменений.
+ * Слушатели не должны выполнять долгих операций и не должны обращаться к хранилищу на запись.
+ */
+public interface StorageListener<T> {
+
+    void added(T entity);
+
+    void updated(T oldEntity, T newEntity);
+
+    /**
+     * Вызывается при восстановлении сущности из сохраненных данных.
+     * По умолчанию обрабатывается так же, как добавление или обновление.
+     *
+     * @param oldEntity сущность, которую заменяет восстановленная, или {@code null}
+     */
+    default void restored(T oldEntity, T newEntity) {
+        if (oldEntity == null) {
+            added(newEntity);
+        } else {
+            updated(oldEntity, newEntity);
+        }
+    }
+
+    /**
+     * Вызывается при восстановлении сущностей в пустое хранилище, до любых других уведомлений этому слушателю.
+     * Сущности упорядочены по возрастанию ID. По умолчанию каждая обрабатывается как {@link #restored}
+     * без предыдущей версии; индексы могут переопределить метод, чтобы построиться одним проходом.
+     */
+    default void restoredAll(List<T> entities) {
+        for (T entity : entities) {
+            restored(null, entity);
+        }
+    }
+
+    /**
+     * Может ли слушатель получить сущности после массового восстановления в фоновом потоке, а не до того, как
+     * хранилище начнет отвечать на чтение. Так помечаются производные индексы: пока они догоняют хранилище,
+     * их запросы ждут {@link StorageListeners#await()}. Слушатели, от которых зависит корректность чтения
+     * (кеши, версии), по умолчанию уведомляются сразу.
+     */
+    default boolean restoresInBackground() {
+        return false;
+    }
+}
@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Слушатели одного хранилища. Уведомления доходят до слушателей в том же потоке, что и запись, кроме
+ * массового восстановления: слушатели, помеченные {@link StorageListener#restoresInBackground()}, получают
+ * восстановленные сущности в фоновом потоке, а уведомления о последующих изменениях до конца прохода копятся
+ * в очереди и применяются в исходном порядке. Пока очереди нет, уведомление обходится без блокировок.
+ */
+@Slf4j
+public class StorageListeners<T> {
+
+    private final List<StorageListener<T>> immediate;
+    private final List<StorageListener<T>> background;
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    /**
+     * Отложенные уведомления фоновых слушателей или {@code null}, если слушатели догнали хранилище.
+     */
+    private volatile List<Consumer<StorageListener<T>>> pending;
+    private volatile CompletableFuture<Void> caughtUp = CompletableFuture.completedFuture(null);
+
+    public StorageListeners(List<StorageListener<T>> listeners) {
+        this.immediate = listeners.stream().filter(listener -> !listener.restoresInBackground()).toList();
+        this.background = listeners.stream().filter(StorageListener::restoresInBackground).toList();
+    }
+
+    public void added(T entity) {
+        for (StorageListener<T> listener : immediate) {
+            listener.added(entity);
+        }
+        if (pending == null || !defer(listener -> listener.added(entity))) {
+            for (StorageListener<T> listener : background) {
+                listener.added(entity);
+            }
+        }
+    }
+
+    public void updated(T oldEntity, T newEntity) {
+        for (StorageListener<T> listener : immediate) {
+            listener.updated(oldEntity, newEntity);
+        }
+        if (pending == null || !defer(listener -> listener.updated(oldEntity, newEntity))) {
+            for (StorageListener<T> listener : background) {
+                listener.updated(oldEntity, newEntity);
+            }
+        }
+    }
+
+    public void restored(T oldEntity, T newEntity) {
+        for (StorageListener<T> listener : immediate) {
+            listener.restored(oldEntity, newEntity);
+        }
+        if (pending == null || !defer(listener -> listener.restored(oldEntity, newEntity))) {
+            for (StorageListener<T> listener : background) {
+                listener.restored(oldEntity, newEntity);
+            }
+        }
+    }
+
+    /**
+     * Уведомляет о сущностях, восстановленных в пустое хранилище. Обычные слушатели получают их сразу,
+     * фоновые — в потоке с именем {@code threadName}.
+     */
+    public void restoredAll(List<T> entities, String threadName) {
+        for (StorageListener<T> listener : immediate) {
+            listener.restoredAll(entities);
+        }
+        if (entities.isEmpty() || background.isEmpty()) {
+            return;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        pendingLock.lock();
+        try {
+            if (pending != null) {
+                throw new IllegalStateException("Слушатели еще не догнали предыдущее восстановление");
+            }
+            pending = new ArrayList<>();
+            caughtUp = done;
+        } finally {
+            pendingLock.unlock();
+        }
+        Thread.ofPlatform().name(threadName).daemon().start(() -> {
+            try {
+                for (StorageListener<T> listener : background) {
+                    listener.restoredAll(entities);
+                }
+                drain();
+                done.complete(null);
+            } catch (RuntimeException | Error e) {
+                log.error("Не удалось восстановить индексы хранилища", e);
+                pendingLock.lock();
+                try {
+                    pending = null;
+                } finally {
+                    pendingLock.unlock();
+                }
+                done.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Ждет, пока фоновые слушатели догонят хранилище после массового восстановления.
+     */
+    public void await() {
+        caughtUp.join();
+    }
+
+    private boolean defer(Consumer<StorageListener<T>> event) {
+        pendingLock.lock();
+        try {
+            if (pending == null) {
+                return false;
+            }
+            pending.add(event);
+            return true;
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    /**
+     * Применяет отложенные уведомления порциями вне блокировки, чтобы не задерживать запись, и переключается
+     * на прямые уведомления, только когда очередь пуста.
+     */
+    private void drain() {
+        while (true) {
+            List<Consumer<StorageListener<T>>> events;
+            pendingLock.lock();
+            try {
+                events = pending;
+                if (events.isEmpty()) {
+                    pending = null;
+                    return;
+                }
+                pending = new ArrayList<>();
+            } finally {
+                pendingLock.unlock();
+            }
+            for (Consumer<StorageListener<T>> event : events) {
+                for (StorageListener<T> listener : background) {
+                    event.accept(listener);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Номер версии содержимого хранилища, увеличивается при каждом добавлении, обновлении и восстановлении.
+ * Хранилище уведомляет слушателей после записи, поэтому данные, прочитанные при версии {@code v},
+ * никогда не старше этой версии.
+ */
+public class StorageVersion<T> implements StorageListener<T> {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    @Override
+    public void added(T entity) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void updated(T oldEntity, T newEntity) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,179 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Пул уникальных строк для колоночных хранилищ. Строка хранится один раз в UTF-8 в больших общих
+ * массивах байт и обозначается номером записи — плотным {@code int}, начиная с 0. На строку уходит
+ * ее длина в байтах плюс около 16 байт служебных данных, без заголовков объектов {@link String} и {@code byte[]}.
+ * <p>
+ * Строки из пула не удаляются. Запись не потокобезопасна: вызовы {@link #intern} упорядочивает хранилище.
+ * Чтение при одновременной записи не приводит к зацикливанию или выходу за пределы памяти,
+ * но может вернуть неверную строку или бросить исключение; хранилище в этом случае повторяет чтение
+ * под блокировкой.
+ */
+public final class StringPool {
+
+    public static final int NULL = -1;
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private byte[][] chunks = new byte[][]{new byte[CHUNK_SIZE]};
+    private int chunkCount = 1;
+    private int position;
+    /**
+     * Номер массива байт (старшие 32 бита) и смещение в нем (младшие) для каждой записи.
+     */
+    private long[] offsets = new long[16];
+    /**
+     * Открытая адресация: номер записи плюс 1, 0 — пустая ячейка. Заполнена не более чем наполовину.
+     */
+    private int[] table = new int[32];
+    private int size;
+
+    /**
+     * @return номер записи строки, добавляя ее при необходимости; {@link #NULL} для {@code null}
+     */
+    public int intern(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes, 0, bytes.length);
+        int slot = findSlot(table, bytes, hash);
+        if (table[slot] != 0) {
+            return table[slot] - 1;
+        }
+        int entry = append(bytes);
+        table[slot] = entry + 1;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return entry;
+    }
+
+    /**
+     * @return номер записи строки или {@link #NULL}, если ее нет в пуле
+     */
+    public int find(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int[] table = this.table;
+        return table[findSlot(table, bytes, hash(bytes, 0, bytes.length))] - 1;
+    }
+
+    public String get(int entry) {
+        if (entry == NULL) {
+            return null;
+        }
+        long offset = offsets[entry];
+        byte[] chunk = chunks[(int) (offset >>> 32)];
+        int length = length(chunk, (int) offset);
+        return new String(chunk, (int) offset + varIntSize(length), length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Количество строк в пуле; номера записей меньше этого числа.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int findSlot(int[] table, byte[] bytes, int hash) {
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot] - 1;
+            if (entry == NULL || equalsEntry(entry, bytes)) {
+                return slot;
+            }
+        }
+    }
+
+    private boolean equalsEntry(int entry, byte[] bytes) {
+        long offset = offsets[entry];
+        byte[] chunk = chunks[(int) (offset >>> 32)];
+        int length = length(chunk, (int) offset);
+        int start = (int) offset + varIntSize(length);
+        return length == bytes.length && Arrays.equals(chunk, start, start + length, bytes, 0, length);
+    }
+
+    private int append(byte[] bytes) {
+        int required = varIntSize(bytes.length) + bytes.length;
+        if (position + required > chunks[chunkCount - 1].length) {
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            chunks[chunkCount++] = new byte[Math.max(CHUNK_SIZE, required)];
+            position = 0;
+        }
+        byte[] chunk = chunks[chunkCount - 1];
+        int start = position;
+        for (int length = bytes.length; ; length >>>= 7) {
+            if (length < 0x80) {
+                chunk[position++] = (byte) length;
+                break;
+            }
+            chunk[position++] = (byte) (length & 0x7F | 0x80);
+        }
+        System.arraycopy(bytes, 0, chunk, position, bytes.length);
+        position += bytes.length;
+
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        offsets[size] = (long) (chunkCount - 1) << 32 | start;
+        return size++;
+    }
+
+    private void rehash() {
+        int[] rehashed = new int[table.length * 2];
+        int mask = rehashed.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            long offset = offsets[entry];
+            byte[] chunk = chunks[(int) (offset >>> 32)];
+            int length = length(chunk, (int) offset);
+            int start = (int) offset + varIntSize(length);
+            int slot = hash(chunk, start, start + length) & mask;
+            while (rehashed[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = entry + 1;
+        }
+        table = rehashed;
+    }
+
+    private static int length(byte[] chunk, int start) {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = chunk[start++];
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return length;
+            }
+        }
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while (value >= 0x80) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Уникальный хеш-индекс: каждому ключу соответствует не больше одного ID.
+ * Ключ занимается атомарно через {@link ConcurrentMap#putIfAbsent}, поэтому из двух одновременных
+ * попыток занять один ключ разными ID успешна ровно одна. Поиск по ключу стоит O(1).
+ */
+public class UniqueIndex {
+
+    private final ConcurrentMap<String, Long> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Занимает ключ за сущностью с указанным ID.
+     *
+     * @return {@code true}, если ключ свободен или уже принадлежит этой сущности
+     */
+    public boolean claim(String key, long id) {
+        Long owner = ids.putIfAbsent(key, id);
+        return owner == null || owner == id;
+    }
+
+    /**
+     * Закрепляет ключ за сущностью, даже если он занят другой. Используется только при восстановлении данных,
+     * когда промежуточные состояния могут временно нарушать уникальность.
+     */
+    public void assign(String key, long id) {
+        ids.put(key, id);
+    }
+
+    /**
+     * Освобождает ключ, только если он принадлежит сущности с указанным ID.
+     */
+    public void release(String key, long id) {
+        ids.remove(key, id);
+    }
+
+    public Optional<Long> find(String key) {
+        return Optional.ofNullable(ids.get(key));
+    }
+}
@@ -0,0 +1,252 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.ColumnTable;
+import ru.yandex.practicum.filmorate.storage.EntityLog;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.OptimisticLock;
+import ru.yandex.practicum.filmorate.storage.StorageListener;
+import ru.yandex.practicum.filmorate.storage.StorageListeners;
+import ru.yandex.practicum.filmorate.storage.StringPool;
+import ru.yandex.practicum.filmorate.storage.StripedLock;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Компактное хранилище фильмов в памяти: поля хранятся колонками {@code int} в {@link ColumnTable}, строка
+ * таблицы — ID фильма. Название и описание хранятся один раз в {@link StringPool}, дата выхода — номером дня
+ * от эпохи, продолжительность — числом. Объекты {@link Film} создаются только при чтении, поэтому
+ * на фильм уходит 16 байт колонок плюс уникальные строки вместо нескольких объектов с заголовками и ссылками.
+ * <p>
+ * Запись одного фильма упорядочена блокировкой из {@link StripedLock}, а сами колонки и пул меняются
+ * под {@link OptimisticLock}; чтение обычно обходится без блокировок. Строки пула не освобождаются,
+ * поэтому старые значения частых обновлений остаются в памяти. Добавление и обновление сначала пишутся
+ * в {@link EntityLog} и только затем попадают в колонки.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.mode", havingValue = "columnar")
+public class ColumnarFilmStorage implements FilmStorage {
+
+    private static final int NAME = 0;
+    private static final int DESCRIPTION = 1;
+    private static final int RELEASE_DATE = 2;
+    private static final int DURATION = 3;
+    /**
+     * Значение колонки даты или продолжительности, когда поле равно {@code null}.
+     */
+    private static final int ABSENT = Integer.MIN_VALUE;
+    private static final int FIND_ALL_PAGE_SIZE = 1000;
+
+    private final ColumnTable columns = new ColumnTable(4);
+    private final StringPool strings = new StringPool();
+    private final OptimisticLock columnLock = new OptimisticLock();
+    private final AtomicInteger size = new AtomicInteger();
+    private final IdGenerator idGenerator = new IdGenerator();
+    private final StripedLock locks = new StripedLock(64);
+    private final StorageListeners<Film> listeners;
+    private final EntityLog<Film> entityLog;
+
+    public ColumnarFilmStorage() {
+        this(List.of());
+    }
+
+    public ColumnarFilmStorage(List<StorageListener<Film>> listeners) {
+        this(listeners, null);
+    }
+
+    /**
+     * @param entityLog журнал изменений или {@code null}, если данные не сохраняются
+     */
+    @Autowired
+    public ColumnarFilmStorage(List<StorageListener<Film>> listeners, @Nullable EntityLog<Film> entityLog) {
+        this.listeners = new StorageListeners<>(listeners);
+        this.entityLog = entityLog != null ? entityLog : EntityLog.none();
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        List<Film> all = new ArrayList<>(size());
+        for (List<Film> page = findPage(0, FIND_ALL_PAGE_SIZE); !page.isEmpty();
+             page = findPage(page.get(page.size() - 1).getId(), FIND_ALL_PAGE_SIZE)) {
+            all.addAll(page);
+        }
+        return all;
+    }
+
+    @Override
+    public List<Film> findPage(long afterId, int limit) {
+        return columnLock.read(() -> {
+            List<Film> page = new ArrayList<>(Math.min(limit, size()));
+            for (long id = columns.nextPresent(afterId); id != 0 && page.size() < limit;
+                 id = columns.nextPresent(id)) {
+                page.add(materialize(id));
+            }
+            return page;
+        });
+    }
+
+    @Override
+    public Optional<Film> findById(long id) {
+        return columnLock.read(() -> columns.isPresent(id) ? Optional.of(materialize(id)) : Optional.empty());
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return columnLock.read(() -> columns.isPresent(id));
+    }
+
+    @Override
+    public Film add(Film film) {
+        film.setId(idGenerator.next());
+        insert(film);
+        return film;
+    }
+
+    @Override
+    public void addAll(List<Film> newFilms) {
+        if (newFilms.isEmpty()) {
+            return;
+        }
+        long id = idGenerator.reserve(newFilms.size());
+        for (Film film : newFilms) {
+            film.setId(id++);
+            insert(film);
+        }
+    }
+
+    @Override
+    public Optional<Film> update(Film film) {
+        Lock lock = locks.forId(film.getId());
+        lock.lock();
+        try {
+            Film oldFilm = columnLock.read(() -> columns.isPresent(film.getId()) ? materialize(film.getId()) : null);
+            if (oldFilm == null) {
+                return Optional.empty();
+            }
+            Film updated = new Film();
+            updated.setId(oldFilm.getId());
+            updated.setName(film.getName());
+            updated.setDescription(film.getDescription());
+            updated.setReleaseDate(film.getReleaseDate());
+            updated.setDuration(film.getDuration());
+            entityLog.append(updated, () -> columnLock.write(() -> {
+                write(updated.getId(), updated);
+                return null;
+            }));
+            listeners.updated(oldFilm, updated);
+            return Optional.of(updated);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void restore(Film film) {
+        Lock lock = locks.forId(film.getId());
+        lock.lock();
+        try {
+            idGenerator.advanceTo(film.getId());
+            Film oldFilm = columnLock.write(() -> {
+                Film old = columns.isPresent(film.getId()) ? materialize(film.getId()) : null;
+                write(film.getId(), film);
+                return old;
+            });
+            if (oldFilm == null) {
+                size.incrementAndGet();
+            }
+            listeners.restored(oldFilm, film);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Восстанавливает записи без блокировок отдельных ID: вызывается при запуске, до первой записи.
+     */
+    @Override
+    public void restoreAll(List<Film> restored) {
+        if (size.get() != 0) {
+            throw new IllegalStateException("Массовое восстановление возможно только в пустое хранилище");
+        }
+        long lastId = columnLock.write(() -> {
+            long last = 0;
+            for (Film film : restored) {
+                if (film.getId() <= last) {
+                    throw new IllegalArgumentException("ID восстанавливаемых фильмов должны возрастать");
+                }
+                last = film.getId();
+                write(film.getId(), film);
+            }
+            return last;
+        });
+        idGenerator.advanceTo(lastId);
+        size.addAndGet(restored.size());
+        listeners.restoredAll(restored, "filmorate-film-listeners");
+    }
+
+    @Override
+    public void awaitListeners() {
+        listeners.await();
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    private void insert(Film film) {
+        Lock lock = locks.forId(film.getId());
+        lock.lock();
+        try {
+            entityLog.append(film, () -> {
+                columnLock.write(() -> {
+                    write(film.getId(), film);
+                    return null;
+                });
+                size.incrementAndGet();
+            });
+            listeners.added(film);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Значения вычисляются до записи в колонки, чтобы ошибка преобразования не оставила строку наполовину
+     * обновленной.
+     */
+    private void write(long id, Film film) {
+        int releaseDate = film.getReleaseDate() == null
+                ? ABSENT : Math.toIntExact(film.getReleaseDate().toEpochDay());
+        int duration = film.getDuration() == null ? ABSENT : film.getDuration();
+        int name = strings.intern(film.getName());
+        int description = strings.intern(film.getDescription());
+        columns.set(id, NAME, name);
+        columns.set(id, DESCRIPTION, description);
+        columns.set(id, RELEASE_DATE, releaseDate);
+        columns.set(id, DURATION, duration);
+        columns.markPresent(id);
+    }
+
+    private Film materialize(long id) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName(strings.get(columns.get(id, NAME)));
+        film.setDescription(strings.get(columns.get(id, DESCRIPTION)));
+        int releaseDate = columns.get(id, RELEASE_DATE);
+        film.setReleaseDate(releaseDate == ABSENT ? null : LocalDate.ofEpochDay(releaseDate));
+        int duration = columns.get(id, DURATION);
+        film.setDuration(duration == ABSENT ? null : duration);
+        return film;
+    }
+}
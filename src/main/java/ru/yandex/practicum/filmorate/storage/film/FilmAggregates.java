@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.Histogram;
+import ru.yandex.practicum.filmorate.storage.StorageListener;
+
+import java.util.Collection;
+import java.util.TreeMap;
+
+/**
+ * Агрегаты каталога фильмов: число фильмов по году релиза и по продолжительности в минутах.
+ * Хранилище обновляет их при каждом добавлении и изменении фильма, поэтому статистика читается
+ * без обхода каталога.
+ */
+@Component
+public class FilmAggregates implements StorageListener<Film> {
+
+    private final Histogram byYear = new Histogram(1895, 2100);
+    private final Histogram byDuration = new Histogram(1, 24 * 60);
+
+    /**
+     * Пересчитывает агрегаты заново по списку фильмов. Фильмы обходятся параллельно: каждая часть списка
+     * считается в своих гистограммах, которые затем складываются.
+     */
+    public static FilmAggregates recompute(Collection<Film> films) {
+        return films.parallelStream().collect(FilmAggregates::new, FilmAggregates::added, FilmAggregates::merge);
+    }
+
+    @Override
+    public void added(Film film) {
+        byYear.add(film.getReleaseDate().getYear());
+        byDuration.add(film.getDuration());
+    }
+
+    @Override
+    public void updated(Film oldFilm, Film newFilm) {
+        int oldYear = oldFilm.getReleaseDate().getYear();
+        int newYear = newFilm.getReleaseDate().getYear();
+        if (oldYear != newYear) {
+            byYear.remove(oldYear);
+            byYear.add(newYear);
+        }
+        if (!oldFilm.getDuration().equals(newFilm.getDuration())) {
+            byDuration.remove(oldFilm.getDuration());
+            byDuration.add(newFilm.getDuration());
+        }
+    }
+
+    @Override
+    public boolean restoresInBackground() {
+        return true;
+    }
+
+    /**
+     * @return число фильмов по году релиза, по возрастанию года
+     */
+    public TreeMap<Integer, Long> countByYear() {
+        return byYear.snapshot();
+    }
+
+    /**
+     * @return число фильмов по продолжительности, по возрастанию продолжительности
+     */
+    public TreeMap<Integer, Long> countByDuration() {
+        return byDuration.snapshot();
+    }
+
+    private void merge(FilmAggregates other) {
+        byYear.addAll(other.byYear);
+        byDuration.addAll(other.byDuration);
+    }
+}
@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.LongSortedSet;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Лайки фильмов и рейтинг популярности. Рейтинг — упорядоченное множество пар (число лайков, ID фильма),
+ * которое обновляется при каждом лайке, поэтому первые N фильмов читаются за O(N) независимо от размера
+ * каталога. В рейтинге только фильмы, у которых есть лайки.
+ * <p>
+ * ID поставивших лайк пользователей хранятся в нескольких {@link LongSortedSet} по хэшу ID пользователя,
+ * поэтому одновременные лайки одного популярного фильма почти не ждут друг друга. Позицию фильма
+ * в рейтинге обновляет один поток за раз: остальные только увеличивают счетчик, а обновляющий поток
+ * перечитывает его, пока рейтинг не совпадет со счетчиком.
+ */
+@Component
+public class FilmLikes {
+
+    private static final int STRIPE_BITS = 3;
+
+    private final ConcurrentMap<Long, Likes> likes = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Rank> ranking = new ConcurrentSkipListSet<>(Rank.MOST_LIKED_FIRST);
+
+    /**
+     * @return {@code true}, если пользователь еще не ставил лайк фильму
+     */
+    public boolean addLike(long filmId, long userId) {
+        Likes filmLikes = likes.computeIfAbsent(filmId, Likes::new);
+        if (!filmLikes.stripe(userId).add(userId)) {
+            return false;
+        }
+        filmLikes.count.incrementAndGet();
+        publish(filmLikes);
+        return true;
+    }
+
+    /**
+     * @return {@code true}, если лайк был
+     */
+    public boolean removeLike(long filmId, long userId) {
+        Likes filmLikes = likes.get(filmId);
+        if (filmLikes == null || !filmLikes.stripe(userId).remove(userId)) {
+            return false;
+        }
+        filmLikes.count.decrementAndGet();
+        publish(filmLikes);
+        return true;
+    }
+
+    public int countLikes(long filmId) {
+        Likes filmLikes = likes.get(filmId);
+        return filmLikes == null ? 0 : filmLikes.count.get();
+    }
+
+    /**
+     * Возвращает не более {@code count} ID фильмов с лайками по убыванию числа лайков, при равенстве —
+     * по возрастанию ID. Во время обновления фильм ненадолго присутствует в рейтинге дважды,
+     * поэтому повторы пропускаются; уже выданные ID ищутся в отсортированном массиве без упаковки.
+     */
+    public long[] findPopular(int count) {
+        long[] popular = new long[count];
+        long[] seen = new long[count];
+        int found = 0;
+        for (Rank rank : ranking) {
+            if (found == count) {
+                break;
+            }
+            int index = Arrays.binarySearch(seen, 0, found, rank.filmId());
+            if (index < 0) {
+                int insertAt = -index - 1;
+                System.arraycopy(seen, insertAt, seen, insertAt + 1, found - insertAt);
+                seen[insertAt] = rank.filmId();
+                popular[found++] = rank.filmId();
+            }
+        }
+        return found == count ? popular : Arrays.copyOf(popular, found);
+    }
+
+    /**
+     * Переносит фильм в рейтинге на позицию, соответствующую счетчику лайков. Если рейтинг фильма уже
+     * обновляет другой поток, он заметит новое значение счетчика после своего обновления.
+     * Новая позиция добавляется раньше, чем удаляется старая, чтобы фильм не пропадал из рейтинга.
+     */
+    private void publish(Likes filmLikes) {
+        while (filmLikes.publishing.compareAndSet(false, true)) {
+            int published;
+            try {
+                published = filmLikes.count.get();
+                Rank oldRank = filmLikes.rank;
+                if (oldRank == null || oldRank.likes() != published) {
+                    Rank newRank = published > 0 ? new Rank(published, filmLikes.filmId) : null;
+                    if (newRank != null) {
+                        ranking.add(newRank);
+                    }
+                    if (oldRank != null) {
+                        ranking.remove(oldRank);
+                    }
+                    filmLikes.rank = newRank;
+                }
+            } finally {
+                filmLikes.publishing.set(false);
+            }
+            if (filmLikes.count.get() == published) {
+                return;
+            }
+        }
+    }
+
+    private static final class Likes {
+        private final long filmId;
+        private final AtomicReferenceArray<LongSortedSet> users = new AtomicReferenceArray<>(1 << STRIPE_BITS);
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicBoolean publishing = new AtomicBoolean();
+        /**
+         * Текущая запись фильма в рейтинге; меняется только потоком, захватившим {@code publishing}.
+         */
+        private Rank rank;
+
+        private Likes(long filmId) {
+            this.filmId = filmId;
+        }
+
+        private LongSortedSet stripe(long userId) {
+            int index = (int) ((userId * 0x9E3779B97F4A7C15L) >>> (64 - STRIPE_BITS));
+            LongSortedSet stripe = users.get(index);
+            if (stripe == null) {
+                users.compareAndSet(index, null, new LongSortedSet());
+                stripe = users.get(index);
+            }
+            return stripe;
+        }
+    }
+
+    private record Rank(int likes, long filmId) {
+        static final Comparator<Rank> MOST_LIKED_FIRST = Comparator.comparingInt(Rank::likes).reversed()
+                .thenComparingLong(Rank::filmId);
+    }
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.SortedIndex;
+import ru.yandex.practicum.filmorate.storage.StorageListener;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Вторичные индексы фильмов по дате релиза и продолжительности.
+ * Индексы обновляются хранилищем при добавлении и изменении фильма.
+ */
+@Component
+public class FilmRangeIndex implements StorageListener<Film> {
+
+    private final SortedIndex byReleaseDate = new SortedIndex();
+    private final SortedIndex byDuration = new SortedIndex();
+
+    @Override
+    public void added(Film film) {
+        byReleaseDate.add(film.getReleaseDate().toEpochDay(), film.getId());
+        byDuration.add(film.getDuration(), film.getId());
+    }
+
+    @Override
+    public void updated(Film oldFilm, Film newFilm) {
+        if (!Objects.equals(oldFilm.getReleaseDate(), newFilm.getReleaseDate())) {
+            byReleaseDate.remove(oldFilm.getReleaseDate().toEpochDay(), oldFilm.getId());
+            byReleaseDate.add(newFilm.getReleaseDate().toEpochDay(), newFilm.getId());
+        }
+        if (!Objects.equals(oldFilm.getDuration(), newFilm.getDuration())) {
+            byDuration.remove(oldFilm.getDuration(), oldFilm.getId());
+            byDuration.add(newFilm.getDuration(), newFilm.getId());
+        }
+    }
+
+    @Override
+    public void restoredAll(List<Film> films) {
+        long[] releaseDates = new long[films.size()];
+        long[] durations = new long[films.size()];
+        long[] ids = new long[films.size()];
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            releaseDates[i] = film.getReleaseDate().toEpochDay();
+            durations[i] = film.getDuration();
+            ids[i] = film.getId();
+        }
+        byReleaseDate.addAll(releaseDates, ids);
+        byDuration.addAll(durations, ids);
+    }
+
+    @Override
+    public boolean restoresInBackground() {
+        return true;
+    }
+
+    public List<Long> findReleasedBetween(LocalDate from, LocalDate to, int limit) {
+        return byReleaseDate.findRange(from.toEpochDay(), to.toEpochDay(), limit);
+    }
+
+    public List<Long> findDurationBetween(int min, int max, int limit) {
+        return byDuration.findRange(min, max, limit);
+    }
+}
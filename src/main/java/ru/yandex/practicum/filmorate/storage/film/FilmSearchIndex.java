@@ -0,0 +1,218 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.LongSortedSet;
+import ru.yandex.practicum.filmorate.storage.StorageListener;
+import ru.yandex.practicum.filmorate.storage.StripedLock;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Инвертированный индекс для полнотекстового поиска по названию и описанию фильмов.
+ * Для каждого слова хранится отсортированный массив ID фильмов, в которых оно встречается.
+ * Словарь упорядочен, поэтому слова с общим префиксом находятся одним проходом по диапазону ключей.
+ * Слово удаляется из словаря, когда в нем не остается фильмов; изменения одного слова упорядочены блокировкой
+ * из {@link StripedLock}, чтобы фильм не попал в массив, который в этот момент удаляется из словаря.
+ */
+@Component
+public class FilmSearchIndex implements StorageListener<Film> {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH_FACTOR = 2;
+    private static final int MAX_PREFIX_TERMS = 256;
+
+    private final ConcurrentNavigableMap<String, LongSortedSet> nameTerms = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<String, LongSortedSet> descriptionTerms = new ConcurrentSkipListMap<>();
+    private final StripedLock termLocks = new StripedLock(64);
+
+    @Override
+    public void added(Film film) {
+        index(nameTerms, tokenize(film.getName()), film.getId());
+        index(descriptionTerms, tokenize(film.getDescription()), film.getId());
+    }
+
+    @Override
+    public void updated(Film oldFilm, Film newFilm) {
+        reindex(nameTerms, tokenize(oldFilm.getName()), tokenize(newFilm.getName()), newFilm.getId());
+        reindex(descriptionTerms, tokenize(oldFilm.getDescription()), tokenize(newFilm.getDescription()),
+                newFilm.getId());
+    }
+
+    /**
+     * Собирает слова в хеш-таблицах и переносит их в словари по возрастанию: так словари заполняются
+     * намного быстрее, чем вставками слов в случайном порядке.
+     */
+    @Override
+    public void restoredAll(List<Film> films) {
+        Map<String, LongSortedSet> names = new HashMap<>();
+        Map<String, LongSortedSet> descriptions = new HashMap<>();
+        for (Film film : films) {
+            for (String token : tokenize(film.getName())) {
+                names.computeIfAbsent(token, key -> new LongSortedSet()).add(film.getId());
+            }
+            for (String token : tokenize(film.getDescription())) {
+                descriptions.computeIfAbsent(token, key -> new LongSortedSet()).add(film.getId());
+            }
+        }
+        putSorted(nameTerms, names);
+        putSorted(descriptionTerms, descriptions);
+    }
+
+    @Override
+    public boolean restoresInBackground() {
+        return true;
+    }
+
+    /**
+     * Ищет фильмы, в названии или описании которых есть слова запроса или слова, начинающиеся с них.
+     * Выше в выдаче фильмы, совпавшие с большим числом слов запроса; при равенстве — с большим весом:
+     * совпадение в названии весит больше, чем в описании, а точное совпадение слова больше, чем по префиксу.
+     *
+     * @return ID найденных фильмов в порядке убывания релевантности
+     */
+    public List<Long> search(String query, int limit) {
+        Map<Long, Score> scores = new HashMap<>();
+        for (String token : tokenize(query)) {
+            Map<Long, Integer> tokenScores = new HashMap<>();
+            collect(nameTerms, token, NAME_WEIGHT, tokenScores);
+            collect(descriptionTerms, token, DESCRIPTION_WEIGHT, tokenScores);
+            tokenScores.forEach((id, weight) -> scores.computeIfAbsent(id, key -> new Score()).add(weight));
+        }
+        return scores.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Long, Score>>comparingInt(entry -> entry.getValue().matchedTokens)
+                        .thenComparingInt(entry -> entry.getValue().weight)
+                        .reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * @return число слов в словарях названий и описаний
+     */
+    public int termCount() {
+        return nameTerms.size() + descriptionTerms.size();
+    }
+
+    /**
+     * Разбивает текст на слова из букв и цифр в нижнем регистре. Подходит и для кириллицы, и для латиницы;
+     * «ё» приводится к «е».
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c == 'ё' || c == 'Ё' ? 'е' : c);
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString().toLowerCase(Locale.ROOT));
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString().toLowerCase(Locale.ROOT));
+        }
+        return tokens;
+    }
+
+    private static void collect(ConcurrentNavigableMap<String, LongSortedSet> terms, String token, int fieldWeight,
+                                Map<Long, Integer> tokenScores) {
+        int expanded = 0;
+        for (Map.Entry<String, LongSortedSet> term : terms.subMap(token, true, token + Character.MAX_VALUE, true)
+                .entrySet()) {
+            if (expanded++ == MAX_PREFIX_TERMS) {
+                break;
+            }
+            int weight = term.getKey().equals(token) ? fieldWeight * EXACT_MATCH_FACTOR : fieldWeight;
+            for (long id : term.getValue().toArray()) {
+                tokenScores.merge(id, weight, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Переносит слова в словарь. Множество ID слова, которое уже есть в словаре, дополняется.
+     */
+    private void putSorted(Map<String, LongSortedSet> terms, Map<String, LongSortedSet> collected) {
+        String[] tokens = collected.keySet().toArray(String[]::new);
+        Arrays.sort(tokens);
+        for (String token : tokens) {
+            LongSortedSet ids = collected.get(token);
+            LongSortedSet existing = terms.putIfAbsent(token, ids);
+            if (existing != null) {
+                for (long id : ids.toArray()) {
+                    existing.add(id);
+                }
+            }
+        }
+    }
+
+    private void index(Map<String, LongSortedSet> terms, Set<String> tokens, long id) {
+        for (String token : tokens) {
+            addTerm(terms, token, id);
+        }
+    }
+
+    private void reindex(Map<String, LongSortedSet> terms, Set<String> oldTokens, Set<String> newTokens, long id) {
+        for (String token : oldTokens) {
+            if (!newTokens.contains(token)) {
+                removeTerm(terms, token, id);
+            }
+        }
+        for (String token : newTokens) {
+            if (!oldTokens.contains(token)) {
+                addTerm(terms, token, id);
+            }
+        }
+    }
+
+    private void addTerm(Map<String, LongSortedSet> terms, String token, long id) {
+        Lock lock = termLocks.forId(token.hashCode());
+        lock.lock();
+        try {
+            terms.computeIfAbsent(token, key -> new LongSortedSet()).add(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeTerm(Map<String, LongSortedSet> terms, String token, long id) {
+        Lock lock = termLocks.forId(token.hashCode());
+        lock.lock();
+        try {
+            LongSortedSet ids = terms.get(token);
+            if (ids != null && ids.remove(id) && ids.size() == 0) {
+                terms.remove(token);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Score {
+        int matchedTokens;
+        int weight;
+
+        void add(int tokenWeight) {
+            matchedTokens++;
+            weight += tokenWeight;
+        }
+    }
+}
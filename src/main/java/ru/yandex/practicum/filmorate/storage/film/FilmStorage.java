@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface FilmStorage {
+
+    Collection<Film> findAll();
+
+    /**
+     * Возвращает не более {@code limit} сущностей с ID больше {@code afterId} в порядке возрастания ID.
+     */
+    List<Film> findPage(long afterId, int limit);
+
+    Optional<Film> findById(long id);
+
+    boolean contains(long id);
+
+    /**
+     * Присваивает фильму новый ID и сохраняет его.
+     */
+    Film add(Film film);
+
+    /**
+     * Сохраняет несколько фильмов, выделяя им ID одним непрерывным блоком.
+     */
+    void addAll(List<Film> films);
+
+    /**
+     * Атомарно заменяет данные фильма с ID {@code film.getId()}.
+     *
+     * @return обновленный фильм или пустой Optional, если фильма с таким ID нет
+     */
+    Optional<Film> update(Film film);
+
+    /**
+     * Сохраняет фильм с уже назначенным ID, добавляя или заменяя запись. Используется при восстановлении
+     * данных после перезапуска; следующий выданный ID будет больше восстановленного.
+     */
+    void restore(Film film);
+
+    /**
+     * Восстанавливает фильмы в пустое хранилище одним проходом, как {@link #restore} для каждого из них.
+     * Фильмы должны быть упорядочены по возрастанию ID. Чтение по ID и постраничный обход доступны сразу
+     * после возврата; слушатели, которые получают восстановленные данные в фоне, нужно дождаться
+     * через {@link #awaitListeners()}.
+     *
+     * @throws IllegalStateException если хранилище не пусто
+     */
+    void restoreAll(List<Film> films);
+
+    /**
+     * Ждет, пока слушатели, получающие восстановленные данные в фоне, догонят хранилище.
+     */
+    void awaitListeners();
+
+    int size();
+}
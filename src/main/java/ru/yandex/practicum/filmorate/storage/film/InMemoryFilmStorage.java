@@ -0,0 +1,195 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.EntityLog;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.SkipListBuilder;
+import ru.yandex.practicum.filmorate.storage.StorageListener;
+import ru.yandex.practicum.filmorate.storage.StorageListeners;
+import ru.yandex.practicum.filmorate.storage.StripedLock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Хранилище фильмов в памяти, безопасное для одновременного доступа из нескольких потоков.
+ * Чтение идет без блокировок, запись одного фильма упорядочена блокировкой из {@link StripedLock}.
+ * Сохраненный объект не меняется, а при обновлении заменяется новым, поэтому читатели никогда
+ * не видят наполовину обновленный фильм.
+ * Записи упорядочены по ID, поэтому постраничный обход по курсору стабилен и стоит O(log n + limit).
+ * Размер хранилища считается отдельно: {@code size()} у {@link ConcurrentSkipListMap} обходит все записи.
+ * Добавление и обновление сначала пишутся в {@link EntityLog} и только затем применяются, слушатели
+ * уведомляются последними.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.mode", havingValue = "objects", matchIfMissing = true)
+public class InMemoryFilmStorage implements FilmStorage {
+
+    /**
+     * Заменяется целиком только при массовом восстановлении в пустое хранилище.
+     */
+    private volatile ConcurrentNavigableMap<Long, Film> films = new ConcurrentSkipListMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final IdGenerator idGenerator = new IdGenerator();
+    private final StripedLock locks = new StripedLock(64);
+    private final StorageListeners<Film> listeners;
+    private final EntityLog<Film> entityLog;
+
+    public InMemoryFilmStorage() {
+        this(List.of());
+    }
+
+    public InMemoryFilmStorage(List<StorageListener<Film>> listeners) {
+        this(listeners, null);
+    }
+
+    /**
+     * @param entityLog журнал изменений или {@code null}, если данные не сохраняются
+     */
+    @Autowired
+    public InMemoryFilmStorage(List<StorageListener<Film>> listeners, @Nullable EntityLog<Film> entityLog) {
+        this.listeners = new StorageListeners<>(listeners);
+        this.entityLog = entityLog != null ? entityLog : EntityLog.none();
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        return List.copyOf(films.values());
+    }
+
+    @Override
+    public List<Film> findPage(long afterId, int limit) {
+        List<Film> page = new ArrayList<>(Math.min(limit, films.size()));
+        for (Film film : films.tailMap(afterId, false).values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(film);
+        }
+        return page;
+    }
+
+    @Override
+    public Optional<Film> findById(long id) {
+        return Optional.ofNullable(films.get(id));
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return films.containsKey(id);
+    }
+
+    @Override
+    public Film add(Film film) {
+        film.setId(idGenerator.next());
+        insert(film);
+        return film;
+    }
+
+    @Override
+    public void addAll(List<Film> newFilms) {
+        if (newFilms.isEmpty()) {
+            return;
+        }
+        long id = idGenerator.reserve(newFilms.size());
+        for (Film film : newFilms) {
+            film.setId(id++);
+            insert(film);
+        }
+    }
+
+    @Override
+    public Optional<Film> update(Film film) {
+        Lock lock = locks.forId(film.getId());
+        lock.lock();
+        try {
+            Film oldFilm = films.get(film.getId());
+            if (oldFilm == null) {
+                return Optional.empty();
+            }
+            Film updated = new Film();
+            updated.setId(oldFilm.getId());
+            updated.setName(film.getName());
+            updated.setDescription(film.getDescription());
+            updated.setReleaseDate(film.getReleaseDate());
+            updated.setDuration(film.getDuration());
+            entityLog.append(updated, () -> films.put(updated.getId(), updated));
+            listeners.updated(oldFilm, updated);
+            return Optional.of(updated);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void restore(Film film) {
+        Lock lock = locks.forId(film.getId());
+        lock.lock();
+        try {
+            idGenerator.advanceTo(film.getId());
+            Film oldFilm = films.put(film.getId(), film);
+            if (oldFilm == null) {
+                size.incrementAndGet();
+            }
+            listeners.restored(oldFilm, film);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Восстанавливает записи без блокировок отдельных ID: вызывается при запуске, до первой записи.
+     * Список записей строится из готового порядка за O(n), см. {@link SkipListBuilder}.
+     */
+    @Override
+    public void restoreAll(List<Film> restored) {
+        if (size.get() != 0) {
+            throw new IllegalStateException("Массовое восстановление возможно только в пустое хранилище");
+        }
+        long lastId = 0;
+        for (Film film : restored) {
+            if (film.getId() <= lastId) {
+                throw new IllegalArgumentException("ID восстанавливаемых фильмов должны возрастать");
+            }
+            lastId = film.getId();
+        }
+        films = SkipListBuilder.fromSorted(restored, Film::getId);
+        idGenerator.advanceTo(lastId);
+        size.addAndGet(restored.size());
+        listeners.restoredAll(restored, "filmorate-film-listeners");
+    }
+
+    @Override
+    public void awaitListeners() {
+        listeners.await();
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    private void insert(Film film) {
+        Lock lock = locks.forId(film.getId());
+        lock.lock();
+        try {
+            entityLog.append(film, () -> {
+                films.put(film.getId(), film);
+                size.incrementAndGet();
+            });
+            listeners.added(film);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
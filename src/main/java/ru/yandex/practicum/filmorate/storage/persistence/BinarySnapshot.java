@@ -0,0 +1,258 @@
+package ru.yandex.practicum.filmorate.storage.persistence;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный снимок фильмов и пользователей, читаемый через {@link MappedByteBuffer}.
+ * <p>
+ * Формат версии 1 (порядок байт little-endian):
+ * <pre>
+ * заголовок, 48 байт:
+ *   int magic "FLMS", int версия, int число фильмов, int число пользователей, int число строк,
+ *   long смещение фильмов, long смещение пользователей, long смещение строк, int CRC32C всего, что после заголовка
+ * фильмы, по 24 байта: long id, int название, int описание, int дата релиза (epoch day), int продолжительность
+ * пользователи, по 28 байт: long id, int email, int логин, int имя, int день рождения (epoch day)
+ * строки: для каждой int длина в байтах и UTF-8
+ * </pre>
+ * Строки записываются в общий словарь один раз, а в записях хранятся их номера; отсутствующее значение
+ * кодируется как {@code -1} для строк и {@link Integer#MIN_VALUE} для чисел. Записи имеют фиксированную
+ * длину, поэтому любую из них можно прочитать по номеру, не разбирая предыдущие.
+ */
+public final class BinarySnapshot implements Closeable {
+
+    static final int MAGIC = 0x534D4C46;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 48;
+    static final int FILM_SIZE = 24;
+    static final int USER_SIZE = 28;
+    static final int NO_STRING = -1;
+    static final int NO_NUMBER = Integer.MIN_VALUE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int filmCount;
+    private final int userCount;
+    private final long filmsOffset;
+    private final long usersOffset;
+    private final String[] strings;
+
+    private BinarySnapshot(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Файл не является снимком данных");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия снимка данных: " + version);
+        }
+        filmCount = buffer.getInt(8);
+        userCount = buffer.getInt(12);
+        int stringCount = buffer.getInt(16);
+        filmsOffset = buffer.getLong(20);
+        usersOffset = buffer.getLong(28);
+        long stringsOffset = buffer.getLong(36);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(HEADER_SIZE, buffer.limit() - HEADER_SIZE));
+        if ((int) crc.getValue() != buffer.getInt(44)) {
+            throw new IOException("Снимок данных поврежден: не совпадает контрольная сумма");
+        }
+        strings = readStrings(stringsOffset, stringCount);
+    }
+
+    public static BinarySnapshot open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Снимок данных больше 2 ГБ не поддерживается");
+            }
+            return new BinarySnapshot(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int filmCount() {
+        return filmCount;
+    }
+
+    public int userCount() {
+        return userCount;
+    }
+
+    public Film film(int index) {
+        int offset = (int) (filmsOffset + (long) index * FILM_SIZE);
+        Film film = new Film();
+        film.setId(buffer.getLong(offset));
+        film.setName(string(buffer.getInt(offset + 8)));
+        film.setDescription(string(buffer.getInt(offset + 12)));
+        film.setReleaseDate(date(buffer.getInt(offset + 16)));
+        film.setDuration(number(buffer.getInt(offset + 20)));
+        return film;
+    }
+
+    public User user(int index) {
+        int offset = (int) (usersOffset + (long) index * USER_SIZE);
+        User user = new User();
+        user.setId(buffer.getLong(offset));
+        user.setEmail(string(buffer.getInt(offset + 8)));
+        user.setLogin(string(buffer.getInt(offset + 12)));
+        user.setName(string(buffer.getInt(offset + 16)));
+        user.setBirthday(date(buffer.getInt(offset + 20)));
+        return user;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private String[] readStrings(long offset, int count) {
+        String[] result = new String[count];
+        int position = (int) offset;
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getInt(position);
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            buffer.get(position + 4, bytes, 0, length);
+            result[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            position += 4 + length;
+        }
+        return result;
+    }
+
+    private String string(int index) {
+        return index == NO_STRING ? null : strings[index];
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NO_NUMBER ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static Integer number(int value) {
+        return value == NO_NUMBER ? null : value;
+    }
+
+    /**
+     * Собирает снимок в памяти в виде секций записей и словаря строк, а затем записывает его одним проходом.
+     * Строки, которые встречаются в нескольких записях, сохраняются один раз.
+     */
+    public static final class Writer {
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final GrowingBuffer strings = new GrowingBuffer();
+        private final GrowingBuffer films = new GrowingBuffer();
+        private final GrowingBuffer users = new GrowingBuffer();
+        private int filmCount;
+        private int userCount;
+
+        public void addFilms(List<Film> page) {
+            for (Film film : page) {
+                ByteBuffer record = films.reserve(FILM_SIZE);
+                record.putLong(film.getId());
+                record.putInt(stringRef(film.getName()));
+                record.putInt(stringRef(film.getDescription()));
+                record.putInt(film.getReleaseDate() == null ? NO_NUMBER : (int) film.getReleaseDate().toEpochDay());
+                record.putInt(film.getDuration() == null ? NO_NUMBER : film.getDuration());
+                filmCount++;
+            }
+        }
+
+        public void addUsers(List<User> page) {
+            for (User user : page) {
+                ByteBuffer record = users.reserve(USER_SIZE);
+                record.putLong(user.getId());
+                record.putInt(stringRef(user.getEmail()));
+                record.putInt(stringRef(user.getLogin()));
+                record.putInt(stringRef(user.getName()));
+                record.putInt(user.getBirthday() == null ? NO_NUMBER : (int) user.getBirthday().toEpochDay());
+                userCount++;
+            }
+        }
+
+        public void writeTo(Path file) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer[] body = {films.flip(), users.flip(), strings.flip()};
+            CRC32C crc = new CRC32C();
+            for (ByteBuffer section : body) {
+                crc.update(section.duplicate());
+            }
+            long filmsOffset = HEADER_SIZE;
+            long usersOffset = filmsOffset + body[0].remaining();
+            long stringsOffset = usersOffset + body[1].remaining();
+            header.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(filmCount)
+                    .putInt(userCount)
+                    .putInt(dictionary.size())
+                    .putLong(filmsOffset)
+                    .putLong(usersOffset)
+                    .putLong(stringsOffset)
+                    .putInt((int) crc.getValue())
+                    .flip();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer[] all = {header, body[0], body[1], body[2]};
+                while (body[2].hasRemaining()) {
+                    channel.write(all);
+                }
+                channel.force(true);
+            }
+        }
+
+        private int stringRef(String value) {
+            if (value == null) {
+                return NO_STRING;
+            }
+            Integer ref = dictionary.get(value);
+            if (ref == null) {
+                ref = dictionary.size();
+                dictionary.put(value, ref);
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                strings.reserve(4 + bytes.length).putInt(bytes.length).put(bytes);
+            }
+            return ref;
+        }
+    }
+
+    private static final class GrowingBuffer {
+        private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+        ByteBuffer reserve(int size) {
+            if (buffer.remaining() < size) {
+                long capacity = Math.max((long) buffer.capacity() * 2, (long) buffer.position() + size);
+                if (capacity > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Снимок данных больше 2 ГБ не поддерживается");
+                }
+                ByteBuffer larger = ByteBuffer.allocate((int) capacity).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+            return buffer;
+        }
+
+        ByteBuffer flip() {
+            return buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.storage.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EntityLog;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Включает сохранение данных на диск: {@code filmorate.persistence.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "filmorate.persistence", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(PersistenceProperties.class)
+public class PersistenceConfig {
+
+    @Bean(destroyMethod = "close")
+    public WriteAheadLog writeAheadLog(PersistenceProperties properties) throws IOException {
+        Files.createDirectories(properties.directory());
+        return WriteAheadLog.open(properties.directory());
+    }
+
+    @Bean
+    public EntityLog<Film> filmLog(WriteAheadLog writeAheadLog, ObjectMapper objectMapper) {
+        return new WriteAheadEntityLog<>(writeAheadLog, RecordType.FILM, objectMapper.writer());
+    }
+
+    @Bean
+    public EntityLog<User> userLog(WriteAheadLog writeAheadLog, ObjectMapper objectMapper) {
+        return new WriteAheadEntityLog<>(writeAheadLog, RecordType.USER, objectMapper.writer());
+    }
+
+    @Bean(initMethod = "recover", destroyMethod = "close")
+    public PersistenceManager persistenceManager(PersistenceProperties properties, WriteAheadLog writeAheadLog,
+                                                 FilmStorage filmStorage, UserStorage userStorage,
+                                                 ObjectMapper objectMapper) {
+        return new PersistenceManager(properties, writeAheadLog, filmStorage, userStorage, objectMapper);
+    }
+}
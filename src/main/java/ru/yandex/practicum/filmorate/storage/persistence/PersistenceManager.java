@@ -0,0 +1,231 @@
+package ru.yandex.practicum.filmorate.storage.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Восстанавливает хранилища при запуске и периодически делает снимки их содержимого.
+ * <p>
+ * Снимок {@code snapshot-<N>.bin} (формат описан в {@link BinarySnapshot}) содержит состояние всех сущностей
+ * на момент после начала сегмента журнала N. При восстановлении загружается последний снимок, а затем
+ * по порядку применяются сегменты журнала начиная с N. Каждая запись хранит полное состояние сущности,
+ * поэтому повторное применение записей, уже попавших в снимок, дает тот же результат. После снимка
+ * более старые сегменты и снимки удаляются.
+ */
+@Slf4j
+public class PersistenceManager implements Closeable {
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int SNAPSHOT_PAGE_SIZE = 1000;
+
+    private final PersistenceProperties properties;
+    private final WriteAheadLog writeAheadLog;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ObjectReader filmReader;
+    private final ObjectReader userReader;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("filmorate-snapshot").daemon().factory());
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    public PersistenceManager(PersistenceProperties properties, WriteAheadLog writeAheadLog,
+                              FilmStorage filmStorage, UserStorage userStorage, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.writeAheadLog = writeAheadLog;
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.filmReader = objectMapper.readerFor(Film.class);
+        this.userReader = objectMapper.readerFor(User.class);
+    }
+
+    /**
+     * Загружает последний снимок и накладывает на него хвост журнала, затем запускает периодические снимки.
+     * Записи журнала сначала собираются в памяти: для каждого ID остается последняя, и она заменяет сущность
+     * снимка. Поэтому хранилища получают все данные одним упорядоченным по ID списком и заполняют индексы
+     * в фоне, а не по одной записи до начала работы.
+     */
+    public void recover() throws IOException {
+        long started = System.nanoTime();
+        Path directory = properties.directory();
+        List<Long> snapshots = PersistenceFiles.numbered(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        long fromSegment = 0;
+        List<Film> films = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        if (!snapshots.isEmpty()) {
+            fromSegment = snapshots.get(snapshots.size() - 1);
+            readSnapshot(snapshotPath(fromSegment), films, users);
+        }
+        long snapshotRecords = (long) films.size() + users.size();
+        Map<Long, Film> loggedFilms = new HashMap<>();
+        Map<Long, User> loggedUsers = new HashMap<>();
+        long logRecords = 0;
+        for (long segment : WriteAheadLog.segments(directory)) {
+            if (segment >= fromSegment && segment < writeAheadLog.currentSegment()) {
+                logRecords += RecordFile.read(WriteAheadLog.segmentPath(directory, segment), (type, payload) -> {
+                    switch (type) {
+                        case FILM -> {
+                            Film film = filmReader.readValue(payload);
+                            loggedFilms.put(film.getId(), film);
+                        }
+                        case USER -> {
+                            User user = userReader.readValue(payload);
+                            loggedUsers.put(user.getId(), user);
+                        }
+                    }
+                });
+            }
+        }
+        filmStorage.restoreAll(merge(films, loggedFilms, Film::getId));
+        userStorage.restoreAll(merge(users, loggedUsers, User::getId));
+        log.info("Данные восстановлены за {} мс: {} записей из снимка, {} записей из журнала. "
+                        + "Фильмов: {}, пользователей: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                snapshotRecords, logRecords, filmStorage.size(), userStorage.size());
+
+        long interval = properties.snapshotCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotIfNeeded, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Делает снимок хранилищ и удаляет журнал и снимки, которые им покрываются.
+     * Снимки не делаются одновременно; блокировка — {@link ReentrantLock}, а не {@code synchronized},
+     * чтобы ожидание ввода-вывода не закрепляло виртуальный поток за потоком-носителем.
+     */
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            writeSnapshot();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        long started = System.nanoTime();
+        long segment = writeAheadLog.roll();
+        BinarySnapshot.Writer snapshot = new BinarySnapshot.Writer();
+        long afterId = 0;
+        for (List<Film> page = filmStorage.findPage(afterId, SNAPSHOT_PAGE_SIZE); !page.isEmpty();
+             page = filmStorage.findPage(afterId, SNAPSHOT_PAGE_SIZE)) {
+            snapshot.addFilms(page);
+            afterId = page.get(page.size() - 1).getId();
+        }
+        afterId = 0;
+        for (List<User> page = userStorage.findPage(afterId, SNAPSHOT_PAGE_SIZE); !page.isEmpty();
+             page = userStorage.findPage(afterId, SNAPSHOT_PAGE_SIZE)) {
+            snapshot.addUsers(page);
+            afterId = page.get(page.size() - 1).getId();
+        }
+        Path target = snapshotPath(segment);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        snapshot.writeTo(temporary);
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        deleteBefore(segment);
+        log.info("Снимок данных {} сохранен за {} мс", target.getFileName(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        try {
+            if (writeAheadLog.segmentRecords() > 0) {
+                snapshot();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось сохранить снимок данных при остановке", e);
+        }
+    }
+
+    private void snapshotIfNeeded() {
+        if (writeAheadLog.segmentRecords() < properties.snapshotAfterRecords()) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось сохранить снимок данных", e);
+        }
+    }
+
+    /**
+     * Записи снимка идут по возрастанию ID и восстанавливаются в том же порядке: тогда индексы слушателей
+     * на {@link ru.yandex.practicum.filmorate.storage.LongSortedSet} дописывают ID в конец массива.
+     * При восстановлении вразнобой каждая вставка сдвигает хвост массива, и восстановление становится квадратичным.
+     */
+    private static void readSnapshot(Path file, List<Film> films, List<User> users) throws IOException {
+        try (BinarySnapshot snapshot = BinarySnapshot.open(file)) {
+            for (int index = 0; index < snapshot.filmCount(); index++) {
+                films.add(snapshot.film(index));
+            }
+            for (int index = 0; index < snapshot.userCount(); index++) {
+                users.add(snapshot.user(index));
+            }
+        }
+    }
+
+    /**
+     * Накладывает сущности из журнала на сущности снимка, упорядоченные по ID: сущность из журнала заменяет
+     * сущность снимка с тем же ID. Результат тоже упорядочен по ID.
+     */
+    private static <T> List<T> merge(List<T> snapshot, Map<Long, T> logged, ToLongFunction<T> idGetter) {
+        if (logged.isEmpty()) {
+            return snapshot;
+        }
+        List<T> tail = new ArrayList<>(logged.values());
+        tail.sort(Comparator.comparingLong(idGetter));
+        List<T> merged = new ArrayList<>(snapshot.size() + tail.size());
+        int index = 0;
+        for (T entity : tail) {
+            long id = idGetter.applyAsLong(entity);
+            while (index < snapshot.size() && idGetter.applyAsLong(snapshot.get(index)) < id) {
+                merged.add(snapshot.get(index++));
+            }
+            if (index < snapshot.size() && idGetter.applyAsLong(snapshot.get(index)) == id) {
+                index++;
+            }
+            merged.add(entity);
+        }
+        merged.addAll(snapshot.subList(index, snapshot.size()));
+        return merged;
+    }
+
+    private void deleteBefore(long segment) throws IOException {
+        Path directory = properties.directory();
+        for (long number : WriteAheadLog.segments(directory)) {
+            if (number < segment) {
+                Files.deleteIfExists(WriteAheadLog.segmentPath(directory, number));
+            }
+        }
+        for (long number : PersistenceFiles.numbered(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (number < segment) {
+                Files.deleteIfExists(snapshotPath(number));
+            }
+        }
+    }
+
+    private Path snapshotPath(long segment) {
+        return properties.directory().resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, segment, SNAPSHOT_SUFFIX));
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.storage.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Настройки сохранения данных на диск.
+ *
+ * @param directory              каталог для журнала изменений и снимков
+ * @param snapshotAfterRecords   после скольких записей в журнале делать новый снимок
+ * @param snapshotCheckInterval  как часто проверять, не пора ли сделать снимок
+ */
+@ConfigurationProperties("filmorate.persistence")
+public record PersistenceProperties(@DefaultValue("data") Path directory,
+                                    @DefaultValue("100000") long snapshotAfterRecords,
+                                    @DefaultValue("10s") Duration snapshotCheckInterval) {
+}
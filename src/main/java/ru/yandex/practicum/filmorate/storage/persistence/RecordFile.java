@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.storage.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+/**
+ * Формат файлов журнала: последовательность записей
+ * {@code [тип: 1 байт][длина: 4 байта][CRC32C: 4 байта][данные]}.
+ * Чтение останавливается на первой оборванной или поврежденной записи — так выглядит хвост файла,
+ * запись в который прервалась при аварийной остановке.
+ */
+final class RecordFile {
+
+    static final int HEADER_SIZE = 9;
+    private static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+
+    private RecordFile() {
+    }
+
+    static void encode(ByteBuffer buffer, RecordType type, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        buffer.put((byte) type.ordinal());
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+    }
+
+    /**
+     * @return число прочитанных целых записей
+     */
+    static long read(Path file, RecordHandler handler) throws IOException {
+        long count = 0;
+        try (InputStream in = Files.newInputStream(file);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(in, 64 * 1024))) {
+            CRC32C crc = new CRC32C();
+            while (true) {
+                int typeCode = data.read();
+                RecordType type = RecordType.of(typeCode);
+                if (type == null) {
+                    break;
+                }
+                try {
+                    int length = data.readInt();
+                    int checksum = data.readInt();
+                    if (length < 0 || length > MAX_PAYLOAD_SIZE) {
+                        break;
+                    }
+                    byte[] payload = new byte[length];
+                    data.readFully(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                    handler.handle(type, payload);
+                    count++;
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    interface RecordHandler {
+        void handle(RecordType type, byte[] payload) throws IOException;
+    }
+}
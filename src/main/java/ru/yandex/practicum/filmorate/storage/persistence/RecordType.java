@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.storage.persistence;
+
+/**
+ * Тип сущности в записи журнала или снимка.
+ */
+public enum RecordType {
+    FILM,
+    USER;
+
+    private static final RecordType[] VALUES = values();
+
+    /**
+     * @return тип по коду или {@code null}, если код неизвестен
+     */
+    static RecordType of(int code) {
+        return code >= 0 && code < VALUES.length ? VALUES[code] : null;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.storage.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import ru.yandex.practicum.filmorate.storage.EntityLog;
+
+import java.io.UncheckedIOException;
+
+/**
+ * Записывает в журнал изменений новое состояние сущности при каждом добавлении и обновлении.
+ * Восстановление из журнала в журнал повторно не пишется: хранилище не вызывает журнал при восстановлении.
+ */
+public class WriteAheadEntityLog<T> implements EntityLog<T> {
+
+    private final WriteAheadLog writeAheadLog;
+    private final RecordType type;
+    private final ObjectWriter writer;
+
+    public WriteAheadEntityLog(WriteAheadLog writeAheadLog, RecordType type, ObjectWriter writer) {
+        this.writeAheadLog = writeAheadLog;
+        this.type = type;
+        this.writer = writer;
+    }
+
+    @Override
+    public void append(T entity, Runnable apply) {
+        byte[] payload;
+        try {
+            payload = writer.writeValueAsBytes(entity);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        writeAheadLog.append(type, payload, apply);
+    }
+}
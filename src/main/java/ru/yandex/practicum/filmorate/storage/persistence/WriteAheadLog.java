@@ -0,0 +1,267 @@
+package ru.yandex.practicum.filmorate.storage.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Журнал изменений, в который записи только дописываются. Журнал разбит на сегменты {@code wal-<номер>.log}.
+ * <p>
+ * Запись выполняет один фоновый поток с групповой фиксацией: он забирает из очереди все накопившиеся записи,
+ * пишет их одним вызовом и один раз вызывает {@code fsync}. Поток, вызвавший {@link #append}, ждет,
+ * пока его запись не окажется на диске, поэтому при большом числе одновременных записей стоимость
+ * {@code fsync} делится между ними.
+ */
+@Slf4j
+public class WriteAheadLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int MAX_BATCH_SIZE = 4096;
+    private static final Request SHUTDOWN = new Request(null, null);
+
+    private final Path directory;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong segmentRecords = new AtomicLong();
+    private final ReadWriteLock applying = new ReentrantReadWriteLock();
+    private final Thread writer;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+    private FileChannel channel;
+    private volatile long segment;
+
+    /**
+     * Открывает журнал в каталоге. Запись начинается в новом сегменте, следующем за уже существующими,
+     * поэтому хвосты старых сегментов, оборванные при аварийной остановке, не дописываются.
+     */
+    public static WriteAheadLog open(Path directory) throws IOException {
+        List<Long> existing = segments(directory);
+        return new WriteAheadLog(directory, existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1);
+    }
+
+    public WriteAheadLog(Path directory, long firstSegment) throws IOException {
+        this.directory = directory;
+        this.segment = firstSegment;
+        this.channel = open(firstSegment);
+        this.writer = Thread.ofPlatform()
+                .name("filmorate-wal-writer")
+                .daemon()
+                .start(this::writeLoop);
+    }
+
+    static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * @return номера существующих сегментов журнала по возрастанию
+     */
+    static List<Long> segments(Path directory) throws IOException {
+        return PersistenceFiles.numbered(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Дописывает запись в журнал и ждет, пока она не будет сохранена на диск.
+     */
+    public void append(RecordType type, byte[] payload) {
+        await(enqueue(new Request(type, payload)));
+    }
+
+    /**
+     * Дописывает запись, ждет ее сохранения на диск и затем выполняет {@code apply} — применение записи в памяти.
+     * Если запись не удалась, {@code apply} не выполняется.
+     */
+    public void append(RecordType type, byte[] payload, Runnable apply) {
+        applying.readLock().lock();
+        try {
+            append(type, payload);
+            apply.run();
+        } finally {
+            applying.readLock().unlock();
+        }
+    }
+
+    /**
+     * Закрывает текущий сегмент и начинает новый. Все записи, добавленные до вызова, остаются в старых сегментах.
+     * Перед этим ждет, пока выполнятся уже начатые {@code apply}, поэтому после возврата все записи старых
+     * сегментов видны в памяти и попадут в снимок, сделанный следом.
+     *
+     * @return номер нового сегмента
+     */
+    public long roll() {
+        CompletableFuture<Long> done;
+        applying.writeLock().lock();
+        try {
+            done = enqueue(new Request(null, null));
+        } finally {
+            applying.writeLock().unlock();
+        }
+        return await(done);
+    }
+
+    public long currentSegment() {
+        return segment;
+    }
+
+    /**
+     * Число записей в текущем сегменте, то есть сделанных после последнего {@link #roll()}.
+     */
+    public long segmentRecords() {
+        return segmentRecords.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        queue.add(SHUTDOWN);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private CompletableFuture<Long> enqueue(Request request) {
+        if (!writer.isAlive()) {
+            throw new IllegalStateException("Журнал изменений закрыт");
+        }
+        queue.add(request);
+        return request.done;
+    }
+
+    private static long await(CompletableFuture<Long> done) {
+        try {
+            return done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void writeLoop() {
+        List<Request> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        List<Request> written = new ArrayList<>(MAX_BATCH_SIZE);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+            for (Request request : batch) {
+                if (request == SHUTDOWN) {
+                    commit(written);
+                    return;
+                }
+                if (request.type == null) {
+                    commit(written);
+                    rollSegment(request);
+                } else {
+                    put(request);
+                    written.add(request);
+                }
+            }
+            commit(written);
+            batch.clear();
+        }
+    }
+
+    private void put(Request request) {
+        int size = RecordFile.HEADER_SIZE + request.payload.length;
+        if (buffer.remaining() < size) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + size));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        RecordFile.encode(buffer, request.type, request.payload);
+    }
+
+    private void commit(List<Request> written) {
+        if (written.isEmpty()) {
+            return;
+        }
+        buffer.flip();
+        long committedSize = -1;
+        try {
+            committedSize = channel.size();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            segmentRecords.addAndGet(written.size());
+            for (Request request : written) {
+                request.done.complete(segment);
+            }
+        } catch (IOException e) {
+            log.error("Не удалось записать журнал изменений", e);
+            truncate(committedSize);
+            UncheckedIOException error = new UncheckedIOException(e);
+            for (Request request : written) {
+                request.done.completeExceptionally(error);
+            }
+        } finally {
+            buffer.clear();
+            written.clear();
+        }
+    }
+
+    /**
+     * Отрезает недописанную пачку, чтобы следующие записи не оказались после поврежденной.
+     */
+    private void truncate(long size) {
+        if (size < 0) {
+            return;
+        }
+        try {
+            channel.truncate(size);
+        } catch (IOException e) {
+            log.error("Не удалось отрезать недописанные записи журнала изменений", e);
+        }
+    }
+
+    private void rollSegment(Request request) {
+        try {
+            channel.close();
+            channel = open(segment + 1);
+            segment++;
+            segmentRecords.set(0);
+            request.done.complete(segment);
+        } catch (IOException e) {
+            log.error("Не удалось начать новый сегмент журнала изменений", e);
+            request.done.completeExceptionally(new UncheckedIOException(e));
+        }
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(segmentPath(directory, number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static final class Request {
+        final RecordType type;
+        final byte[] payload;
+        final CompletableFuture<Long> done = new CompletableFuture<>();
+
+        Request(RecordType type, byte[] payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.ColumnTable;
+import ru.yandex.practicum.filmorate.storage.EntityLog;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.OptimisticLock;
+import ru.yandex.practicum.filmorate.storage.StorageListener;
+import ru.yandex.practicum.filmorate.storage.StorageListeners;
+import ru.yandex.practicum.filmorate.storage.StringPool;
+import ru.yandex.practicum.filmorate.storage.StripedLock;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Компактное хранилище пользователей в памяти: поля хранятся колонками {@code int} в {@link ColumnTable},
+ * строка таблицы — ID пользователя. Email, логин и имя хранятся один раз в общем {@link StringPool}, поэтому
+ * имя, совпадающее с логином, не занимает памяти; дата рождения хранится номером дня от эпохи.
+ * Объекты {@link User} создаются только при чтении.
+ * <p>
+ * Уникальность email (без учета регистра) и логина обеспечивают массивы владельцев, индексированные номером
+ * строки в пуле: ключи проверяются и занимаются под той же блокировкой, что и запись колонок.
+ * Затем изменение пишется в {@link EntityLog} и только после этого попадает в колонки; если запись не удалась,
+ * занятые ключи освобождаются.
+ * Запись одного пользователя упорядочена блокировкой из {@link StripedLock}, чтение обычно обходится
+ * без блокировок благодаря {@link OptimisticLock}. Строки пула не освобождаются.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.mode", havingValue = "columnar")
+public class ColumnarUserStorage implements UserStorage {
+
+    private static final int EMAIL = 0;
+    /**
+     * Email в нижнем регистре — ключ уникальности; совпадает с {@link #EMAIL}, если email уже в нижнем регистре.
+     */
+    private static final int EMAIL_KEY = 1;
+    private static final int LOGIN = 2;
+    private static final int NAME = 3;
+    private static final int BIRTHDAY = 4;
+    /**
+     * Значение колонки даты рождения, когда поле равно {@code null}.
+     */
+    private static final int ABSENT = Integer.MIN_VALUE;
+    private static final int FIND_ALL_PAGE_SIZE = 1000;
+
+    private final ColumnTable columns = new ColumnTable(5);
+    private final StringPool strings = new StringPool();
+    private final OptimisticLock columnLock = new OptimisticLock();
+    /**
+     * ID пользователя, которому принадлежит ключ с данным номером в пуле, или 0, если ключ свободен.
+     */
+    private long[] emailOwners = new long[16];
+    private long[] loginOwners = new long[16];
+    private final AtomicInteger size = new AtomicInteger();
+    private final IdGenerator idGenerator = new IdGenerator();
+    private final StripedLock locks = new StripedLock(64);
+    private final StorageListeners<User> listeners;
+    private final EntityLog<User> entityLog;
+
+    public ColumnarUserStorage() {
+        this(List.of());
+    }
+
+    public ColumnarUserStorage(List<StorageListener<User>> listeners) {
+        this(listeners, null);
+    }
+
+    /**
+     * @param entityLog журнал изменений или {@code null}, если данные не сохраняются
+     */
+    @Autowired
+    public ColumnarUserStorage(List<StorageListener<User>> listeners, @Nullable EntityLog<User> entityLog) {
+        this.listeners = new StorageListeners<>(listeners);
+        this.entityLog = entityLog != null ? entityLog : EntityLog.none();
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        List<User> all = new ArrayList<>(size());
+        for (List<User> page = findPage(0, FIND_ALL_PAGE_SIZE); !page.isEmpty();
+             page = findPage(page.get(page.size() - 1).getId(), FIND_ALL_PAGE_SIZE)) {
+            all.addAll(page);
+        }
+        return all;
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        return columnLock.read(() -> {
+            List<User> page = new ArrayList<>(Math.min(limit, size()));
+            for (long id = columns.nextPresent(afterId); id != 0 && page.size() < limit;
+                 id = columns.nextPresent(id)) {
+                page.add(materialize(id));
+            }
+            return page;
+        });
+    }
+
+    @Override
+    public Optional<User> findById(long id) {
+        return columnLock.read(() -> columns.isPresent(id) ? Optional.of(materialize(id)) : Optional.empty());
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        String key = emailKey(email);
+        return columnLock.read(() -> findByOwner(owner(emailOwners, strings.find(key))));
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        return columnLock.read(() -> findByOwner(owner(loginOwners, strings.find(login))));
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return columnLock.read(() -> columns.isPresent(id));
+    }
+
+    @Override
+    public User add(User user) {
+        user.setId(idGenerator.next());
+        insert(user);
+        return user;
+    }
+
+    @Override
+    public Map<Integer, String> addAll(List<User> newUsers) {
+        Map<Integer, String> errors = new HashMap<>();
+        if (newUsers.isEmpty()) {
+            return errors;
+        }
+        long id = idGenerator.reserve(newUsers.size());
+        for (int i = 0; i < newUsers.size(); i++) {
+            User user = newUsers.get(i);
+            user.setId(id++);
+            try {
+                insert(user);
+            } catch (DuplicatedDataException e) {
+                user.setId(null);
+                errors.put(i, e.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public Map<Integer, String> addAllAtomically(List<User> newUsers) {
+        if (newUsers.isEmpty()) {
+            return new HashMap<>();
+        }
+        long firstId = idGenerator.reserve(newUsers.size());
+        Map<Integer, String> errors = columnLock.write(() -> {
+            Map<Integer, String> conflicts = new HashMap<>();
+            for (int i = 0; i < newUsers.size(); i++) {
+                User user = newUsers.get(i);
+                user.setId(firstId + i);
+                try {
+                    checkKeys(user.getId(), user);
+                    claimKeys(user);
+                } catch (DuplicatedDataException e) {
+                    conflicts.put(i, e.getMessage());
+                }
+            }
+            if (!conflicts.isEmpty()) {
+                releaseClaims(newUsers);
+                newUsers.forEach(user -> user.setId(null));
+            }
+            return conflicts;
+        });
+        if (errors.isEmpty()) {
+            for (int i = 0; i < newUsers.size(); i++) {
+                try {
+                    insert(newUsers.get(i));
+                } catch (RuntimeException e) {
+                    List<User> rest = newUsers.subList(i, newUsers.size());
+                    columnLock.write(() -> {
+                        releaseClaims(rest);
+                        return null;
+                    });
+                    rest.forEach(user -> user.setId(null));
+                    throw e;
+                }
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public Optional<User> update(User user) {
+        Lock lock = locks.forId(user.getId());
+        lock.lock();
+        try {
+            User oldUser = columnLock.write(() -> {
+                long id = user.getId();
+                if (!columns.isPresent(id)) {
+                    return null;
+                }
+                checkKeys(id, user);
+                claimKeys(user);
+                return materialize(id);
+            });
+            if (oldUser == null) {
+                return Optional.empty();
+            }
+            User updated = new User();
+            updated.setId(oldUser.getId());
+            updated.setEmail(user.getEmail());
+            updated.setLogin(user.getLogin());
+            updated.setName(user.getName());
+            updated.setBirthday(user.getBirthday());
+            appendOrReleaseClaim(updated, () -> columnLock.write(() -> {
+                write(updated.getId(), updated);
+                return null;
+            }));
+            listeners.updated(oldUser, updated);
+            return Optional.of(updated);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void restore(User user) {
+        Lock lock = locks.forId(user.getId());
+        lock.lock();
+        try {
+            idGenerator.advanceTo(user.getId());
+            User oldUser = columnLock.write(() -> {
+                User old = columns.isPresent(user.getId()) ? materialize(user.getId()) : null;
+                write(user.getId(), user);
+                return old;
+            });
+            if (oldUser == null) {
+                size.incrementAndGet();
+            }
+            listeners.restored(oldUser, user);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Восстанавливает записи без блокировок отдельных ID: вызывается при запуске, до первой записи.
+     */
+    @Override
+    public void restoreAll(List<User> restored) {
+        if (size.get() != 0) {
+            throw new IllegalStateException("Массовое восстановление возможно только в пустое хранилище");
+        }
+        long lastId = columnLock.write(() -> {
+            long last = 0;
+            for (User user : restored) {
+                if (user.getId() <= last) {
+                    throw new IllegalArgumentException("ID восстанавливаемых пользователей должны возрастать");
+                }
+                last = user.getId();
+                write(user.getId(), user);
+            }
+            return last;
+        });
+        idGenerator.advanceTo(lastId);
+        size.addAndGet(restored.size());
+        listeners.restoredAll(restored, "filmorate-user-listeners");
+    }
+
+    @Override
+    public void awaitListeners() {
+        listeners.await();
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    private void insert(User user) {
+        Lock lock = locks.forId(user.getId());
+        lock.lock();
+        try {
+            columnLock.write(() -> {
+                checkKeys(user.getId(), user);
+                claimKeys(user);
+                return null;
+            });
+            appendOrReleaseClaim(user, () -> {
+                columnLock.write(() -> {
+                    write(user.getId(), user);
+                    return null;
+                });
+                size.incrementAndGet();
+            });
+            listeners.added(user);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Пишет пользователя с уже занятыми ключами в журнал и применяет изменение. Если запись не удалась,
+     * освобождает ключи, занятые для этого изменения.
+     */
+    private void appendOrReleaseClaim(User user, Runnable apply) {
+        try {
+            entityLog.append(user, apply);
+        } catch (RuntimeException e) {
+            columnLock.write(() -> {
+                releaseClaims(List.of(user));
+                return null;
+            });
+            throw e;
+        }
+    }
+
+    /**
+     * Проверяет, что email и логин пользователя свободны или уже принадлежат ему.
+     */
+    private void checkKeys(long id, User user) {
+        long emailOwner = owner(emailOwners, strings.find(emailKey(user.getEmail())));
+        if (emailOwner != 0 && emailOwner != id) {
+            throw new DuplicatedDataException("Email " + user.getEmail() + " уже используется");
+        }
+        long loginOwner = owner(loginOwners, strings.find(user.getLogin()));
+        if (loginOwner != 0 && loginOwner != id) {
+            throw new DuplicatedDataException("Логин " + user.getLogin() + " уже используется");
+        }
+    }
+
+    /**
+     * Записывает колонки и занимает ключи пользователя, освобождая ключи прежней версии записи.
+     * Значения вычисляются до записи в колонки, чтобы ошибка преобразования не оставила строку наполовину
+     * обновленной.
+     */
+    private void write(long id, User user) {
+        int birthday = user.getBirthday() == null ? ABSENT : Math.toIntExact(user.getBirthday().toEpochDay());
+        String emailKey = emailKey(user.getEmail());
+        int email = strings.intern(user.getEmail());
+        int emailKeyEntry = emailKey.equals(user.getEmail()) ? email : strings.intern(emailKey);
+        int login = strings.intern(user.getLogin());
+        int name = strings.intern(user.getName());
+        ensureOwnerCapacity();
+        if (columns.isPresent(id)) {
+            release(emailOwners, columns.get(id, EMAIL_KEY), id);
+            release(loginOwners, columns.get(id, LOGIN), id);
+        }
+        columns.set(id, EMAIL, email);
+        columns.set(id, EMAIL_KEY, emailKeyEntry);
+        columns.set(id, LOGIN, login);
+        columns.set(id, NAME, name);
+        columns.set(id, BIRTHDAY, birthday);
+        columns.markPresent(id);
+        emailOwners[emailKeyEntry] = id;
+        loginOwners[login] = id;
+    }
+
+    /**
+     * Занимает email и логин пользователя до записи в колонки. Пока строка не записана, поиск по этим ключам
+     * пользователя не находит, но другие пользователи занять их уже не могут.
+     */
+    private void claimKeys(User user) {
+        int emailKeyEntry = strings.intern(emailKey(user.getEmail()));
+        int login = strings.intern(user.getLogin());
+        ensureOwnerCapacity();
+        emailOwners[emailKeyEntry] = user.getId();
+        loginOwners[login] = user.getId();
+    }
+
+    /**
+     * Освобождает ключи, занятые {@link #claimKeys} для незаписанного изменения. Ключи, которые уже записаны
+     * в строку пользователя, остаются за ним.
+     */
+    private void releaseClaims(List<User> users) {
+        for (User user : users) {
+            long id = user.getId();
+            boolean present = columns.isPresent(id);
+            int emailKeyEntry = strings.find(emailKey(user.getEmail()));
+            int login = strings.find(user.getLogin());
+            if (!present || emailKeyEntry != columns.get(id, EMAIL_KEY)) {
+                release(emailOwners, emailKeyEntry, id);
+            }
+            if (!present || login != columns.get(id, LOGIN)) {
+                release(loginOwners, login, id);
+            }
+        }
+    }
+
+    private void ensureOwnerCapacity() {
+        if (strings.size() > emailOwners.length) {
+            int length = Math.max(strings.size(), emailOwners.length * 2);
+            emailOwners = Arrays.copyOf(emailOwners, length);
+            loginOwners = Arrays.copyOf(loginOwners, length);
+        }
+    }
+
+    private Optional<User> findByOwner(long id) {
+        return id != 0 && columns.isPresent(id) ? Optional.of(materialize(id)) : Optional.empty();
+    }
+
+    private User materialize(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(strings.get(columns.get(id, EMAIL)));
+        user.setLogin(strings.get(columns.get(id, LOGIN)));
+        user.setName(strings.get(columns.get(id, NAME)));
+        int birthday = columns.get(id, BIRTHDAY);
+        user.setBirthday(birthday == ABSENT ? null : LocalDate.ofEpochDay(birthday));
+        return user;
+    }
+
+    private static long owner(long[] owners, int key) {
+        return key == StringPool.NULL || key >= owners.length ? 0 : owners[key];
+    }
+
+    private static void release(long[] owners, int key, long id) {
+        if (key != StringPool.NULL && key < owners.length && owners[key] == id) {
+            owners[key] = 0;
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
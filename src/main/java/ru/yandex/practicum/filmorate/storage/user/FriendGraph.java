@@ -0,0 +1,181 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.LongSortedSet;
+import ru.yandex.practicum.filmorate.storage.StripedLock;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Граф дружбы пользователей. Дружба взаимна: у каждого пользователя хранится отсортированный массив ID
+ * друзей ({@link LongSortedSet}), около 8 байт на каждое направление связи.
+ * Добавление и удаление одной дружбы меняют оба массива под одной блокировкой из {@link StripedLock},
+ * поэтому одновременные операции с одной парой не оставляют связь односторонней.
+ * Общие друзья ищутся пересечением отсортированных массивов без перебора всех пар.
+ */
+@Component
+public class FriendGraph {
+
+    /**
+     * Сколько связей друзей друзей просматривается при поиске рекомендаций. Друзья обходятся по возрастанию
+     * числа их друзей, поэтому на пользователях с миллионами друзей ограничение отбрасывает наименее
+     * информативные связи. Друзья друга, на котором лимит исчерпывается, берутся не все, а сколько осталось
+     * до лимита, поэтому даже у друга с огромным числом друзей рекомендации не пропадают.
+     */
+    private static final int SUGGESTION_SCAN_LIMIT = 1 << 16;
+    private static final long[] NONE = new long[0];
+
+    private final ConcurrentMap<Long, LongSortedSet> friends = new ConcurrentHashMap<>();
+    private final StripedLock locks = new StripedLock(64);
+
+    /**
+     * @return {@code true}, если пользователи еще не были друзьями
+     */
+    public boolean addFriends(long userId, long friendId) {
+        Lock lock = locks.forId(pairKey(userId, friendId));
+        lock.lock();
+        try {
+            boolean added = friendsOf(userId).add(friendId);
+            friendsOf(friendId).add(userId);
+            return added;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true}, если пользователи были друзьями
+     */
+    public boolean removeFriends(long userId, long friendId) {
+        Lock lock = locks.forId(pairKey(userId, friendId));
+        lock.lock();
+        try {
+            LongSortedSet userFriends = friends.get(userId);
+            LongSortedSet friendFriends = friends.get(friendId);
+            if (userFriends == null || friendFriends == null) {
+                return false;
+            }
+            friendFriends.remove(userId);
+            return userFriends.remove(friendId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return ID всех друзей пользователя по возрастанию
+     */
+    public long[] findFriends(long userId) {
+        LongSortedSet userFriends = friends.get(userId);
+        return userFriends == null ? NONE : userFriends.toArray();
+    }
+
+    /**
+     * @return не более {@code limit} ID друзей пользователя больше {@code afterId} по возрастанию
+     */
+    public long[] findFriends(long userId, long afterId, int limit) {
+        LongSortedSet userFriends = friends.get(userId);
+        return userFriends == null ? NONE : userFriends.range(afterId, limit);
+    }
+
+    public int countFriends(long userId) {
+        LongSortedSet userFriends = friends.get(userId);
+        return userFriends == null ? 0 : userFriends.size();
+    }
+
+    /**
+     * @return ID общих друзей двух пользователей по возрастанию
+     */
+    public long[] findCommonFriends(long userId, long otherId) {
+        LongSortedSet userFriends = friends.get(userId);
+        LongSortedSet otherFriends = friends.get(otherId);
+        if (userFriends == null || otherFriends == null) {
+            return NONE;
+        }
+        return LongSortedSet.intersection(userFriends, otherFriends);
+    }
+
+    /**
+     * Рекомендует друзей друзей, которые еще не в друзьях у пользователя. Чем больше общих друзей,
+     * тем выше рекомендация; при равенстве первым идет меньший ID. Друзья друзей собираются в один массив
+     * и сортируются, поэтому подсчет общих друзей обходится без упаковки ID в {@link Long}.
+     *
+     * @return не более {@code limit} ID рекомендованных пользователей
+     */
+    public long[] suggestFriends(long userId, int limit) {
+        long[] userFriends = findFriends(userId);
+        LongSortedSet[] friendSets = new LongSortedSet[userFriends.length];
+        // размер множества в старших битах, номер в младших: сортировка не зависит от одновременных изменений
+        long[] order = new long[userFriends.length];
+        for (int i = 0; i < userFriends.length; i++) {
+            friendSets[i] = friends.get(userFriends[i]);
+            order[i] = (long) (friendSets[i] == null ? 0 : friendSets[i].size()) << 32 | i;
+        }
+        Arrays.sort(order);
+
+        long[] candidates = new long[0];
+        int candidateCount = 0;
+        for (long position : order) {
+            LongSortedSet friendFriends = friendSets[(int) position];
+            if (friendFriends == null) {
+                continue;
+            }
+            int remaining = SUGGESTION_SCAN_LIMIT - candidateCount;
+            if (remaining == 0) {
+                break;
+            }
+            long[] ids = friendFriends.range(Long.MIN_VALUE, remaining);
+            if (candidateCount + ids.length > candidates.length) {
+                candidates = Arrays.copyOf(candidates, Math.max(candidateCount + ids.length, candidates.length * 2));
+            }
+            System.arraycopy(ids, 0, candidates, candidateCount, ids.length);
+            candidateCount += ids.length;
+        }
+        Arrays.sort(candidates, 0, candidateCount);
+        return top(candidates, candidateCount, userId, userFriends, limit);
+    }
+
+    private LongSortedSet friendsOf(long userId) {
+        return friends.computeIfAbsent(userId, id -> new LongSortedSet());
+    }
+
+    /**
+     * Выбирает из отсортированных кандидатов {@code limit} ID, встречающихся чаще всего.
+     */
+    private static long[] top(long[] candidates, int candidateCount, long userId, long[] userFriends, int limit) {
+        PriorityQueue<Suggestion> best = new PriorityQueue<>(Suggestion.WORST_FIRST);
+        for (int i = 0; i < candidateCount; ) {
+            long id = candidates[i];
+            int from = i;
+            while (i < candidateCount && candidates[i] == id) {
+                i++;
+            }
+            if (id == userId || Arrays.binarySearch(userFriends, id) >= 0) {
+                continue;
+            }
+            best.add(new Suggestion(id, i - from));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        long[] suggestions = new long[best.size()];
+        for (int i = suggestions.length - 1; i >= 0; i--) {
+            suggestions[i] = best.poll().id();
+        }
+        return suggestions;
+    }
+
+    private static long pairKey(long userId, long friendId) {
+        return Math.min(userId, friendId) * 31 + Math.max(userId, friendId);
+    }
+
+    private record Suggestion(long id, int commonFriends) {
+        static final Comparator<Suggestion> WORST_FIRST = Comparator.comparingInt(Suggestion::commonFriends)
+                .thenComparing(Comparator.comparingLong(Suggestion::id).reversed());
+    }
+}
@@ -0,0 +1,317 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EntityLog;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.SkipListBuilder;
+import ru.yandex.practicum.filmorate.storage.StorageListener;
+import ru.yandex.practicum.filmorate.storage.StorageListeners;
+import ru.yandex.practicum.filmorate.storage.StripedLock;
+import ru.yandex.practicum.filmorate.storage.UniqueIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Хранилище пользователей в памяти, безопасное для одновременного доступа из нескольких потоков.
+ * Чтение идет без блокировок, запись одного пользователя упорядочена блокировкой из {@link StripedLock}.
+ * Сохраненный объект не меняется, а при обновлении заменяется новым, поэтому читатели никогда
+ * не видят наполовину обновленного пользователя.
+ * Email (без учета регистра) и логин уникальны: ключи занимаются в {@link UniqueIndex} до записи
+ * пользователя, поэтому ограничение соблюдается и при одновременных добавлениях и обновлениях.
+ * Затем изменение пишется в {@link EntityLog} и только после этого применяется; если запись не удалась,
+ * занятые ключи освобождаются.
+ * Записи упорядочены по ID, поэтому постраничный обход по курсору стабилен и стоит O(log n + limit).
+ * Размер хранилища считается отдельно: {@code size()} у {@link ConcurrentSkipListMap} обходит все записи.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.mode", havingValue = "objects", matchIfMissing = true)
+public class InMemoryUserStorage implements UserStorage {
+
+    /**
+     * Заменяется целиком только при массовом восстановлении в пустое хранилище.
+     */
+    private volatile ConcurrentNavigableMap<Long, User> users = new ConcurrentSkipListMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final IdGenerator idGenerator = new IdGenerator();
+    private final StripedLock locks = new StripedLock(64);
+    private final UniqueIndex emails = new UniqueIndex();
+    private final UniqueIndex logins = new UniqueIndex();
+    private final StorageListeners<User> listeners;
+    private final EntityLog<User> entityLog;
+
+    public InMemoryUserStorage() {
+        this(List.of());
+    }
+
+    public InMemoryUserStorage(List<StorageListener<User>> listeners) {
+        this(listeners, null);
+    }
+
+    /**
+     * @param entityLog журнал изменений или {@code null}, если данные не сохраняются
+     */
+    @Autowired
+    public InMemoryUserStorage(List<StorageListener<User>> listeners, @Nullable EntityLog<User> entityLog) {
+        this.listeners = new StorageListeners<>(listeners);
+        this.entityLog = entityLog != null ? entityLog : EntityLog.none();
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return List.copyOf(users.values());
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, users.size()));
+        for (User user : users.tailMap(afterId, false).values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(user);
+        }
+        return page;
+    }
+
+    @Override
+    public Optional<User> findById(long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return emails.find(emailKey(email)).flatMap(this::findById);
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        return logins.find(login).flatMap(this::findById);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return users.containsKey(id);
+    }
+
+    @Override
+    public User add(User user) {
+        user.setId(idGenerator.next());
+        insert(user);
+        return user;
+    }
+
+    @Override
+    public Map<Integer, String> addAll(List<User> newUsers) {
+        Map<Integer, String> errors = new HashMap<>();
+        if (newUsers.isEmpty()) {
+            return errors;
+        }
+        long id = idGenerator.reserve(newUsers.size());
+        for (int i = 0; i < newUsers.size(); i++) {
+            User user = newUsers.get(i);
+            user.setId(id++);
+            try {
+                insert(user);
+            } catch (DuplicatedDataException e) {
+                user.setId(null);
+                errors.put(i, e.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public Map<Integer, String> addAllAtomically(List<User> newUsers) {
+        Map<Integer, String> errors = new HashMap<>();
+        if (newUsers.isEmpty()) {
+            return errors;
+        }
+        long id = idGenerator.reserve(newUsers.size());
+        for (int i = 0; i < newUsers.size(); i++) {
+            User user = newUsers.get(i);
+            user.setId(id++);
+            try {
+                claimKeys(user, null);
+            } catch (DuplicatedDataException e) {
+                errors.put(i, e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            for (User user : newUsers) {
+                releaseKeys(user);
+                user.setId(null);
+            }
+            return errors;
+        }
+        for (int i = 0; i < newUsers.size(); i++) {
+            try {
+                insert(newUsers.get(i));
+            } catch (RuntimeException e) {
+                for (User user : newUsers.subList(i, newUsers.size())) {
+                    releaseKeys(user);
+                    user.setId(null);
+                }
+                throw e;
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public Optional<User> update(User user) {
+        Lock lock = locks.forId(user.getId());
+        lock.lock();
+        try {
+            User oldUser = users.get(user.getId());
+            if (oldUser == null) {
+                return Optional.empty();
+            }
+            User updated = new User();
+            updated.setId(oldUser.getId());
+            updated.setEmail(user.getEmail());
+            updated.setLogin(user.getLogin());
+            updated.setName(user.getName());
+            updated.setBirthday(user.getBirthday());
+            claimKeys(updated, oldUser);
+            try {
+                entityLog.append(updated, () -> users.put(updated.getId(), updated));
+            } catch (RuntimeException e) {
+                releaseKeys(updated, oldUser);
+                throw e;
+            }
+            releaseKeys(oldUser, updated);
+            listeners.updated(oldUser, updated);
+            return Optional.of(updated);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void restore(User user) {
+        Lock lock = locks.forId(user.getId());
+        lock.lock();
+        try {
+            idGenerator.advanceTo(user.getId());
+            User oldUser = users.put(user.getId(), user);
+            if (oldUser != null) {
+                releaseKeys(oldUser, user);
+            } else {
+                size.incrementAndGet();
+            }
+            emails.assign(emailKey(user.getEmail()), user.getId());
+            logins.assign(user.getLogin(), user.getId());
+            listeners.restored(oldUser, user);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Восстанавливает записи без блокировок отдельных ID: вызывается при запуске, до первой записи.
+     * Список записей строится из готового порядка за O(n), см. {@link SkipListBuilder}.
+     */
+    @Override
+    public void restoreAll(List<User> restored) {
+        if (size.get() != 0) {
+            throw new IllegalStateException("Массовое восстановление возможно только в пустое хранилище");
+        }
+        long lastId = 0;
+        for (User user : restored) {
+            if (user.getId() <= lastId) {
+                throw new IllegalArgumentException("ID восстанавливаемых пользователей должны возрастать");
+            }
+            lastId = user.getId();
+            emails.assign(emailKey(user.getEmail()), user.getId());
+            logins.assign(user.getLogin(), user.getId());
+        }
+        users = SkipListBuilder.fromSorted(restored, User::getId);
+        idGenerator.advanceTo(lastId);
+        size.addAndGet(restored.size());
+        listeners.restoredAll(restored, "filmorate-user-listeners");
+    }
+
+    @Override
+    public void awaitListeners() {
+        listeners.await();
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    private void insert(User user) {
+        Lock lock = locks.forId(user.getId());
+        lock.lock();
+        try {
+            claimKeys(user, null);
+            try {
+                entityLog.append(user, () -> {
+                    users.put(user.getId(), user);
+                    size.incrementAndGet();
+                });
+            } catch (RuntimeException e) {
+                releaseKeys(user);
+                throw e;
+            }
+            listeners.added(user);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Занимает email и логин пользователя. Если занять логин не удалось, только что занятый email освобождается.
+     */
+    private void claimKeys(User user, User oldUser) {
+        long id = user.getId();
+        String email = emailKey(user.getEmail());
+        if (!emails.claim(email, id)) {
+            throw new DuplicatedDataException("Email " + user.getEmail() + " уже используется");
+        }
+        if (!logins.claim(user.getLogin(), id)) {
+            if (oldUser == null || !email.equals(emailKey(oldUser.getEmail()))) {
+                emails.release(email, id);
+            }
+            throw new DuplicatedDataException("Логин " + user.getLogin() + " уже используется");
+        }
+    }
+
+    private void releaseKeys(User oldUser, User newUser) {
+        String oldEmail = emailKey(oldUser.getEmail());
+        if (!oldEmail.equals(emailKey(newUser.getEmail()))) {
+            emails.release(oldEmail, oldUser.getId());
+        }
+        if (!oldUser.getLogin().equals(newUser.getLogin())) {
+            logins.release(oldUser.getLogin(), oldUser.getId());
+        }
+    }
+
+    /**
+     * Освобождает email и логин, если они принадлежат пользователю.
+     */
+    private void releaseKeys(User user) {
+        emails.release(emailKey(user.getEmail()), user.getId());
+        logins.release(user.getLogin(), user.getId());
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.Histogram;
+import ru.yandex.practicum.filmorate.storage.StorageListener;
+
+import java.util.Collection;
+import java.util.TreeMap;
+
+/**
+ * Агрегаты пользователей: число пользователей по году рождения. Хранилище обновляет их при каждом добавлении
+ * и изменении пользователя. Хранится год, а не возраст, поэтому агрегаты не устаревают со временем.
+ */
+@Component
+public class UserAggregates implements StorageListener<User> {
+
+    private final Histogram byBirthYear = new Histogram(1900, 2100);
+
+    /**
+     * Пересчитывает агрегаты заново по списку пользователей, обходя его параллельно.
+     */
+    public static UserAggregates recompute(Collection<User> users) {
+        return users.parallelStream().collect(UserAggregates::new, UserAggregates::added, UserAggregates::merge);
+    }
+
+    @Override
+    public void added(User user) {
+        byBirthYear.add(user.getBirthday().getYear());
+    }
+
+    @Override
+    public void updated(User oldUser, User newUser) {
+        int oldYear = oldUser.getBirthday().getYear();
+        int newYear = newUser.getBirthday().getYear();
+        if (oldYear != newYear) {
+            byBirthYear.remove(oldYear);
+            byBirthYear.add(newYear);
+        }
+    }
+
+    @Override
+    public boolean restoresInBackground() {
+        return true;
+    }
+
+    /**
+     * @return число пользователей по году рождения, по возрастанию года
+     */
+    public TreeMap<Integer, Long> countByBirthYear() {
+        return byBirthYear.snapshot();
+    }
+
+    private void merge(UserAggregates other) {
+        byBirthYear.addAll(other.byBirthYear);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface UserStorage {
+
+    Collection<User> findAll();
+
+    /**
+     * Возвращает не более {@code limit} сущностей с ID больше {@code afterId} в порядке возрастания ID.
+     */
+    List<User> findPage(long afterId, int limit);
+
+    Optional<User> findById(long id);
+
+    Optional<User> findByEmail(String email);
+
+    Optional<User> findByLogin(String login);
+
+    boolean contains(long id);
+
+    /**
+     * Присваивает пользователю новый ID и сохраняет его.
+     *
+     * @throws DuplicatedDataException если email или логин уже заняты другим пользователем
+     */
+    User add(User user);
+
+    /**
+     * Сохраняет несколько пользователей, выделяя им ID одним непрерывным блоком.
+     * Пользователи, чей email или логин уже занят, не сохраняются.
+     *
+     * @return сообщения об ошибках для несохраненных пользователей по их позиции в списке
+     */
+    Map<Integer, String> addAll(List<User> users);
+
+    /**
+     * Сохраняет пользователей, только если email и логин ни одного из них не заняты, в том числе другими
+     * пользователями из того же списка. Ключи всех пользователей занимаются до вставки первого из них,
+     * поэтому при любом конфликте не сохраняется ни один пользователь. Если не удалась запись в журнал
+     * изменений, исключение передается вызывающему, а уже записанные в журнал пользователи остаются сохраненными.
+     *
+     * @return сообщения об ошибках для конфликтующих пользователей по их позиции в списке;
+     *         если список не пуст, ни один пользователь не сохранен
+     */
+    Map<Integer, String> addAllAtomically(List<User> users);
+
+    /**
+     * Атомарно заменяет данные пользователя с ID {@code user.getId()}.
+     *
+     * @return обновленный пользователь или пустой Optional, если пользователя с таким ID нет
+     * @throws DuplicatedDataException если новый email или логин уже заняты другим пользователем
+     */
+    Optional<User> update(User user);
+
+    /**
+     * Сохраняет пользователя с уже назначенным ID, добавляя или заменяя запись. Используется при восстановлении
+     * данных после перезапуска; следующий выданный ID будет больше восстановленного.
+     */
+    void restore(User user);
+
+    /**
+     * Восстанавливает пользователей в пустое хранилище одним проходом, как {@link #restore} для каждого из них.
+     * Пользователи должны быть упорядочены по возрастанию ID. Чтение по ID и постраничный обход доступны сразу
+     * после возврата; слушатели, которые получают восстановленные данные в фоне, нужно дождаться
+     * через {@link #awaitListeners()}.
+     *
+     * @throws IllegalStateException если хранилище не пусто
+     */
+    void restoreAll(List<User> users);
+
+    /**
+     * Ждет, пока слушатели, получающие восстановленные данные в фоне, догонят хранилище.
+     */
+    void awaitListeners();
+
+    int size();
+}
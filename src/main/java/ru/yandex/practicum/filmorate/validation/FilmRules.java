@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import ru.yandex.practicum.filmorate.metrics.ValidationCounters;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+
+/**
+ * Правила валидации фильма.
+ */
+public final class FilmRules {
+
+    public static final LocalDate MIN_RELEASE_DATE = LocalDate.of(1895, 12, 28);
+    public static final int MAX_DESCRIPTION_LENGTH = 200;
+
+    private FilmRules() {
+    }
+
+    public static Validator<Film, Rule> compile(MeterRegistry meterRegistry, boolean collectAll) {
+        return Validator.<Film, Rule>builder()
+                .field(Film::getName)
+                .rule(Rule.NAME_BLANK, name -> name != null && !name.isBlank(), "Название не может быть пустым")
+                .field(Film::getDescription)
+                .rule(Rule.DESCRIPTION_NULL, description -> description != null, "Описание не может быть пустым")
+                .rule(Rule.DESCRIPTION_TOO_LONG, description -> description.length() <= MAX_DESCRIPTION_LENGTH,
+                        "Описание не может быть больше " + MAX_DESCRIPTION_LENGTH + " символов")
+                .field(Film::getReleaseDate)
+                .rule(Rule.RELEASE_DATE_NULL, date -> date != null, "Дата релиза не может быть пустой")
+                .rule(Rule.RELEASE_DATE_TOO_EARLY, date -> !date.isBefore(MIN_RELEASE_DATE),
+                        "Дата релиза не может быть раньше " + MIN_RELEASE_DATE)
+                .field(Film::getDuration)
+                .rule(Rule.DURATION_NULL, duration -> duration != null,
+                        "Продолжительность фильма не может быть пустой")
+                .rule(Rule.DURATION_NOT_POSITIVE, duration -> duration > 0,
+                        "Продолжительность фильма не может быть отрицательным числом или 0")
+                .build(new ValidationCounters<>(meterRegistry, "film", Rule.class), collectAll);
+    }
+
+    /**
+     * Правила валидации фильма, для каждого ведется счетчик отказов.
+     */
+    public enum Rule {
+        NAME_BLANK,
+        DESCRIPTION_NULL,
+        DESCRIPTION_TOO_LONG,
+        RELEASE_DATE_NULL,
+        RELEASE_DATE_TOO_EARLY,
+        DURATION_NULL,
+        DURATION_NOT_POSITIVE
+    }
+}
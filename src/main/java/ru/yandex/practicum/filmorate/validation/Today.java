@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Сегодняшняя дата по часам {@code clock}. Дата вычисляется заново только при выходе текущего времени
+ * за границы запомненных суток, в остальное время чтение — это одно обращение к часам и сравнение.
+ */
+final class Today {
+
+    private final Clock clock;
+    private final ZoneId zone;
+    private volatile Day day;
+
+    Today(Clock clock) {
+        this.clock = clock;
+        this.zone = clock.getZone();
+    }
+
+    LocalDate get() {
+        long now = clock.millis();
+        Day current = day;
+        if (current == null || now < current.startMillis() || now >= current.endMillis()) {
+            LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(now), zone);
+            current = new Day(date, toMillis(date), toMillis(date.plusDays(1)));
+            day = current;
+        }
+        return current.date();
+    }
+
+    private long toMillis(LocalDate date) {
+        return date.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private record Day(LocalDate date, long startMillis, long endMillis) {
+    }
+}
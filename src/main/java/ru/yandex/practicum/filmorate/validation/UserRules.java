@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import ru.yandex.practicum.filmorate.metrics.ValidationCounters;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Clock;
+
+/**
+ * Правила валидации пользователя.
+ */
+public final class UserRules {
+
+    private UserRules() {
+    }
+
+    /**
+     * @param clock часы, по которым определяется сегодняшняя дата для проверки даты рождения
+     */
+    public static Validator<User, Rule> compile(MeterRegistry meterRegistry, boolean collectAll, Clock clock) {
+        Today today = new Today(clock);
+        return Validator.<User, Rule>builder()
+                .field(User::getEmail)
+                .rule(Rule.EMAIL_INVALID, email -> email != null && !email.isBlank() && email.contains("@"),
+                        "Email не должен быть пустым и содержать @")
+                .field(User::getLogin)
+                .rule(Rule.LOGIN_INVALID, login -> login != null && !login.isBlank() && !login.contains(" "),
+                        "Логин не может быть пустым и содержать пробелы")
+                .field(User::getBirthday)
+                .rule(Rule.BIRTHDAY_NULL, birthday -> birthday != null, "Дата рождения не может быть пустой")
+                .rule(Rule.BIRTHDAY_IN_FUTURE, birthday -> !birthday.isAfter(today.get()),
+                        "Дата рождения не может быть в будущем")
+                .build(new ValidationCounters<>(meterRegistry, "user", Rule.class), collectAll);
+    }
+
+    /**
+     * Правила валидации пользователя, для каждого ведется счетчик отказов.
+     */
+    public enum Rule {
+        EMAIL_INVALID,
+        LOGIN_INVALID,
+        BIRTHDAY_NULL,
+        BIRTHDAY_IN_FUTURE
+    }
+}
@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Clock;
+
+@Configuration
+public class ValidationConfig {
+
+    @Bean
+    public Validator<Film, FilmRules.Rule> filmValidator(
+            MeterRegistry meterRegistry, @Value("${filmorate.validation.collect-all}") boolean collectAll) {
+        return FilmRules.compile(meterRegistry, collectAll);
+    }
+
+    @Bean
+    public Validator<User, UserRules.Rule> userValidator(
+            MeterRegistry meterRegistry, @Value("${filmorate.validation.collect-all}") boolean collectAll) {
+        return UserRules.compile(meterRegistry, collectAll, Clock.systemDefaultZone());
+    }
+}
@@ -0,0 +1,173 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.ValidationCounters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Валидатор сущностей, собранный из объявленных правил. Правила группируются по полям: значение поля
+ * читается один раз, после первого нарушенного правила остальные правила этого поля не проверяются,
+ * поэтому правило может полагаться на предыдущие (например, проверять длину уже проверенного на {@code null}
+ * описания). При сборке правила раскладываются в плоские массивы, и проверка — это один проход по ним.
+ *
+ * @param <T> тип сущности
+ * @param <E> перечисление правил, по каждому ведется счетчик отказов
+ */
+public final class Validator<T, E extends Enum<E>> {
+
+    private final Function<? super T, ?>[] getters;
+    private final int[] fields;
+    private final Predicate<Object>[] checks;
+    private final E[] rules;
+    private final String[] messages;
+    private final ValidationCounters<E> counters;
+    private final boolean collectAll;
+
+    @SuppressWarnings("unchecked")
+    private Validator(Builder<T, E> builder, ValidationCounters<E> counters, boolean collectAll) {
+        this.getters = builder.getters.toArray(Function[]::new);
+        this.fields = builder.fields.stream().mapToInt(Integer::intValue).toArray();
+        this.checks = builder.checks.toArray(Predicate[]::new);
+        this.rules = (E[]) builder.rules.toArray(Enum[]::new);
+        this.messages = builder.messages.toArray(String[]::new);
+        this.counters = counters;
+        this.collectAll = collectAll;
+    }
+
+    public static <T, E extends Enum<E>> Builder<T, E> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Проверяет сущность. Без режима сбора всех нарушений останавливается на первом, иначе сообщает
+     * все нарушения одним исключением, перечисляя сообщения через «; ».
+     *
+     * @throws ValidationException если сущность нарушает хотя бы одно правило
+     */
+    public void validate(T entity) {
+        if (!collectAll) {
+            int failed = firstViolation(entity);
+            if (failed >= 0) {
+                throw reject(failed);
+            }
+            return;
+        }
+        List<Violation<E>> violations = check(entity);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                    .map(Violation::message)
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    /**
+     * Проверяет все правила и возвращает нарушения без исключения. Счетчики отказов учитывают
+     * каждое нарушенное правило.
+     */
+    public List<Violation<E>> check(T entity) {
+        List<Violation<E>> violations = new ArrayList<>();
+        int field = -1;
+        int failedField = -1;
+        Object value = null;
+        for (int i = 0; i < checks.length; i++) {
+            if (fields[i] == failedField) {
+                continue;
+            }
+            if (fields[i] != field) {
+                field = fields[i];
+                value = getters[field].apply(entity);
+            }
+            if (!checks[i].test(value)) {
+                counters.increment(rules[i]);
+                violations.add(new Violation<>(rules[i], messages[i]));
+                failedField = field;
+            }
+        }
+        return violations;
+    }
+
+    private int firstViolation(T entity) {
+        int field = -1;
+        Object value = null;
+        for (int i = 0; i < checks.length; i++) {
+            if (fields[i] != field) {
+                field = fields[i];
+                value = getters[field].apply(entity);
+            }
+            if (!checks[i].test(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private ValidationException reject(int failed) {
+        counters.increment(rules[failed]);
+        return new ValidationException(messages[failed]);
+    }
+
+    /**
+     * Нарушенное правило и сообщение для клиента.
+     */
+    public record Violation<E extends Enum<E>>(E rule, String message) {
+    }
+
+    /**
+     * Объявление правил: {@link #field} начинает группу правил для значения поля, {@link Field#rule}
+     * добавляет в нее правило. Правила проверяются в порядке объявления.
+     */
+    public static final class Builder<T, E extends Enum<E>> {
+        private final List<Function<? super T, ?>> getters = new ArrayList<>();
+        private final List<Integer> fields = new ArrayList<>();
+        private final List<Predicate<Object>> checks = new ArrayList<>();
+        private final List<E> rules = new ArrayList<>();
+        private final List<String> messages = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public <F> Field<T, F, E> field(Function<? super T, ? extends F> getter) {
+            getters.add(getter);
+            return new Field<>(this, getters.size() - 1);
+        }
+
+        public Validator<T, E> build(ValidationCounters<E> counters, boolean collectAll) {
+            return new Validator<>(this, counters, collectAll);
+        }
+    }
+
+    public static final class Field<T, F, E extends Enum<E>> {
+        private final Builder<T, E> builder;
+        private final int index;
+
+        private Field(Builder<T, E> builder, int index) {
+            this.builder = builder;
+            this.index = index;
+        }
+
+        /**
+         * @param valid условие, которому должно удовлетворять значение поля
+         */
+        @SuppressWarnings("unchecked")
+        public Field<T, F, E> rule(E rule, Predicate<? super F> valid, String message) {
+            builder.fields.add(index);
+            builder.checks.add((Predicate<Object>) valid);
+            builder.rules.add(rule);
+            builder.messages.add(message);
+            return this;
+        }
+
+        public <G> Field<T, G, E> field(Function<? super T, ? extends G> getter) {
+            return builder.field(getter);
+        }
+
+        public Validator<T, E> build(ValidationCounters<E> counters, boolean collectAll) {
+            return builder.build(counters, collectAll);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ru.yandex.practicum.filmorate;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.yandex.practicum.filmorate.cache.CollectionCacheFilter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.StorageVersion;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CollectionCacheFilterTest {
+    private final AtomicInteger serialized = new AtomicInteger();
+    private final StorageVersion<Film> filmVersion = new StorageVersion<>();
+    private InMemoryFilmStorage filmStorage;
+    private CollectionCacheFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage(List.of(filmVersion));
+        filter = new CollectionCacheFilter(Map.of("/films", filmVersion));
+    }
+
+    @Test
+    void testUnchangedCollectionIsServedFromCache() throws Exception {
+        filmStorage.add(film("Film"));
+
+        MockHttpServletResponse first = get("/films", null);
+        MockHttpServletResponse second = get("/films", null);
+
+        assertEquals(200, second.getStatus());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals(first.getHeader(HttpHeaders.ETAG), second.getHeader(HttpHeaders.ETAG));
+        assertEquals(1, serialized.get(), "Повторный запрос не должен сериализовать коллекцию");
+    }
+
+    @Test
+    void testIfNoneMatchReturnsNotModified() throws Exception {
+        String etag = get("/films", null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = get("/films", etag);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentLength());
+        assertEquals(1, serialized.get());
+    }
+
+    @Test
+    void testIfNoneMatchListContainingEtagReturnsNotModified() throws Exception {
+        String etag = get("/films", null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = get("/films", "\"other\" ,  " + etag + ",\"another\"");
+
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    void testWeakIfNoneMatchReturnsNotModified() throws Exception {
+        String etag = get("/films", null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = get("/films", "W/" + etag);
+
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    void testWildcardIfNoneMatchReturnsNotModified() throws Exception {
+        get("/films", null);
+
+        MockHttpServletResponse response = get("/films", "*");
+
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    void testEtagInsideAnotherTagIsNotMatch() throws Exception {
+        String etag = get("/films", null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = get("/films", "\"v2" + etag + "\"");
+
+        assertEquals(200, response.getStatus(), "ETag должен сравниваться целиком, а не как подстрока");
+        assertEquals(1, serialized.get());
+    }
+
+    @Test
+    void testChangeInvalidatesCacheAndEtag() throws Exception {
+        String etag = get("/films", null).getHeader(HttpHeaders.ETAG);
+        filmStorage.add(film("Film"));
+        Film update = film("Updated film");
+        update.setId(1L);
+        filmStorage.update(update);
+
+        MockHttpServletResponse response = get("/films", etag);
+
+        assertEquals(200, response.getStatus());
+        assertNotEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertTrue(response.getContentAsString().contains("Updated film"));
+        assertEquals(2, serialized.get());
+    }
+
+    @Test
+    void testPagesAreNotCached() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/films");
+        request.setQueryString("limit=10");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new ListServlet()));
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new ListServlet()));
+
+        assertEquals(2, serialized.get());
+    }
+
+    private MockHttpServletResponse get(String path, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new ListServlet()));
+        return response;
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        return film;
+    }
+
+    /**
+     * Отдает названия фильмов и считает, сколько раз коллекция была сериализована.
+     */
+    private class ListServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            serialized.incrementAndGet();
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(filmStorage.findAll().stream()
+                    .map(film -> "\"" + film.getName() + "\"")
+                    .toList()
+                    .toString());
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EntityLog;
+import ru.yandex.practicum.filmorate.storage.StorageListener;
+import ru.yandex.practicum.filmorate.storage.StringPool;
+import ru.yandex.practicum.filmorate.storage.film.ColumnarFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.ColumnarUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarStorageTest {
+    private static final int FOOTPRINT_FILMS = 200_000;
+
+    @Test
+    void testStringPoolDeduplicatesStrings() {
+        StringPool pool = new StringPool();
+        int first = pool.intern("Фильм");
+        int second = pool.intern("Film");
+
+        assertEquals(first, pool.intern(new String("Фильм")), "Одинаковые строки должны храниться один раз");
+        assertNotEquals(first, second);
+        assertEquals("Фильм", pool.get(first));
+        assertEquals(second, pool.find("Film"));
+        assertEquals(StringPool.NULL, pool.find("missing"));
+        assertEquals(StringPool.NULL, pool.intern(null));
+        assertNull(pool.get(StringPool.NULL));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void testStringPoolKeepsManyAndLongStrings() {
+        StringPool pool = new StringPool();
+        String huge = "x".repeat(100_000);
+        List<Integer> entries = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            entries.add(pool.intern("Строка " + i));
+        }
+        int hugeEntry = pool.intern(huge);
+
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals("Строка " + i, pool.get(entries.get(i)));
+        }
+        assertEquals(huge, pool.get(hugeEntry));
+        assertEquals(hugeEntry, pool.find(huge));
+    }
+
+    @Test
+    void testFilmStorageKeepsFieldsAndOrder() {
+        FilmStorage filmStorage = new ColumnarFilmStorage();
+        Film withNulls = film("Без описания", 0);
+        withNulls.setDescription(null);
+        withNulls.setReleaseDate(null);
+        withNulls.setDuration(null);
+        filmStorage.addAll(List.of(film("Первый", 90), film("Второй", 120)));
+        filmStorage.add(withNulls);
+
+        assertEquals(3, filmStorage.size());
+        Film stored = filmStorage.findById(2).orElseThrow();
+        assertEquals(film("Второй", 120).getName(), stored.getName());
+        assertEquals(LocalDate.of(1999, 12, 31), stored.getReleaseDate());
+        assertEquals(120, stored.getDuration());
+        assertEquals(withNulls, filmStorage.findById(3).orElseThrow(), "Пустые поля должны остаться пустыми");
+        assertTrue(filmStorage.findById(4).isEmpty());
+        assertFalse(filmStorage.contains(0));
+        assertEquals(List.of(2L, 3L), filmStorage.findPage(1, 10).stream().map(Film::getId).toList());
+        assertEquals(List.of(1L), filmStorage.findPage(0, 1).stream().map(Film::getId).toList());
+        assertEquals(List.of(1L, 2L, 3L), filmStorage.findAll().stream().map(Film::getId).toList());
+    }
+
+    @Test
+    void testFilmStorageUpdateAndRestoreNotifyListeners() {
+        List<String> events = new ArrayList<>();
+        FilmStorage filmStorage = new ColumnarFilmStorage(List.of(new StorageListener<>() {
+            @Override
+            public void added(Film film) {
+                events.add("added " + film.getName());
+            }
+
+            @Override
+            public void updated(Film oldFilm, Film newFilm) {
+                events.add("updated " + oldFilm.getName() + " -> " + newFilm.getName());
+            }
+        }));
+        filmStorage.add(film("Старое", 90));
+        Film update = film("Новое", 100);
+        update.setId(1L);
+        Film missing = film("Нет", 100);
+        missing.setId(10L);
+        Film restored = film("Восстановленное", 80);
+        restored.setId(50L);
+
+        assertEquals("Новое", filmStorage.update(update).orElseThrow().getName());
+        assertTrue(filmStorage.update(missing).isEmpty());
+        filmStorage.restore(restored);
+
+        assertEquals(List.of("added Старое", "updated Старое -> Новое", "added Восстановленное"), events);
+        assertEquals(2, filmStorage.size());
+        assertEquals(restored, filmStorage.findById(50).orElseThrow());
+        assertEquals(51, filmStorage.add(film("Следующий", 90)).getId(),
+                "После восстановления нумерация должна продолжиться");
+    }
+
+    @Test
+    void testConcurrentFilmUpdatesAreAtomic() throws Exception {
+        FilmStorage filmStorage = new ColumnarFilmStorage();
+        long filmId = filmStorage.add(film("Film 0", 1)).getId();
+
+        runConcurrently(16, writer -> {
+            for (int i = 0; i < 2_000; i++) {
+                Film update = film("Film " + writer + "-" + i, writer + 1);
+                update.setId(filmId);
+                filmStorage.update(update);
+                filmStorage.add(film("Film " + writer + "-" + i, writer + 1));
+                Film stored = filmStorage.findById(filmId).orElseThrow();
+                assertTrue(stored.getName().startsWith("Film " + (stored.getDuration() - 1) + "-"),
+                        "Фильм не должен быть виден наполовину обновленным");
+            }
+        });
+
+        assertEquals(16 * 2_000 + 1, filmStorage.size());
+        assertEquals(filmStorage.size(), filmStorage.findAll().size());
+    }
+
+    @Test
+    void testUserStorageKeepsUniqueKeys() {
+        UserStorage userStorage = new ColumnarUserStorage();
+        User first = userStorage.add(user("first"));
+        User sameEmail = user("second");
+        sameEmail.setEmail("FIRST@mail.ru");
+
+        DuplicatedDataException emailError = assertThrows(DuplicatedDataException.class,
+                () -> userStorage.add(sameEmail));
+        assertEquals("Email FIRST@mail.ru уже используется", emailError.getMessage());
+        User sameLogin = user("first");
+        sameLogin.setEmail("other@mail.ru");
+        assertThrows(DuplicatedDataException.class, () -> userStorage.add(sameLogin));
+
+        Map<Integer, String> errors = userStorage.addAll(List.of(user("second"), user("first")));
+        assertEquals(Map.of(1, "Email first@mail.ru уже используется"), errors);
+        assertEquals(first, userStorage.findByEmail("First@Mail.ru").orElseThrow());
+        assertEquals("second", userStorage.findByLogin("second").orElseThrow().getLogin());
+        assertTrue(userStorage.findByLogin("nobody").isEmpty());
+        assertEquals(2, userStorage.size());
+    }
+
+    @Test
+    void testAtomicUserBatchClaimsKeysBeforeInsert() {
+        UserStorage userStorage = new ColumnarUserStorage();
+        userStorage.add(user("taken"));
+        User duplicate = user("third");
+        duplicate.setLogin("second");
+
+        Map<Integer, String> errors = userStorage.addAllAtomically(List.of(user("first"), user("second"), duplicate));
+
+        assertEquals(Map.of(2, "Логин second уже используется"), errors);
+        assertEquals(1, userStorage.size(), "При конфликте не должно быть добавлено ничего");
+        assertTrue(userStorage.findByLogin("first").isEmpty());
+        assertTrue(userStorage.addAllAtomically(List.of(user("first"), user("second"))).isEmpty(),
+                "Ключи отклоненного пакета должны освободиться");
+        assertEquals(3, userStorage.size());
+    }
+
+    @Test
+    void testUserUpdateReleasesOldKeys() {
+        UserStorage userStorage = new ColumnarUserStorage();
+        long id = userStorage.add(user("first")).getId();
+        userStorage.add(user("second"));
+        User renamed = user("renamed");
+        renamed.setId(id);
+        User taken = user("second");
+        taken.setId(id);
+
+        assertThrows(DuplicatedDataException.class, () -> userStorage.update(taken));
+        assertEquals("first", userStorage.findById(id).orElseThrow().getLogin(),
+                "Отклоненное обновление не должно менять пользователя");
+        assertEquals("renamed", userStorage.update(renamed).orElseThrow().getLogin());
+        assertTrue(userStorage.findByLogin("first").isEmpty());
+        assertTrue(userStorage.findByEmail("first@mail.ru").isEmpty());
+        assertEquals(id, userStorage.findByEmail("renamed@mail.ru").orElseThrow().getId());
+        assertEquals(3, userStorage.add(user("first")).getId(), "Освобожденный логин можно занять снова");
+    }
+
+    @Test
+    void testUserRestoreOverridesKeys() {
+        UserStorage userStorage = new ColumnarUserStorage();
+        userStorage.add(user("first"));
+        User restored = user("restored");
+        restored.setId(1L);
+        restored.setBirthday(null);
+
+        userStorage.restore(restored);
+
+        assertEquals(restored, userStorage.findById(1).orElseThrow());
+        assertTrue(userStorage.findByLogin("first").isEmpty());
+        assertEquals(1, userStorage.size());
+    }
+
+    @Test
+    void testRestoreAllKeepsKeysAndContinuesIds() {
+        UserStorage userStorage = new ColumnarUserStorage();
+        User first = user("first");
+        first.setId(3L);
+        User second = user("second");
+        second.setId(7L);
+
+        userStorage.restoreAll(List.of(first, second));
+
+        assertEquals(List.of(first, second), userStorage.findPage(0, 10));
+        assertEquals(second, userStorage.findByEmail("SECOND@mail.ru").orElseThrow());
+        assertEquals(8, userStorage.add(user("third")).getId());
+        assertThrows(DuplicatedDataException.class, () -> userStorage.add(user("first")));
+        assertEquals(3, userStorage.size());
+        assertThrows(IllegalStateException.class, () -> userStorage.restoreAll(List.of()));
+    }
+
+    @Test
+    void testFailedLogWriteLeavesFilmStorageUnchanged() {
+        FailingLog<Film> filmLog = new FailingLog<>();
+        for (FilmStorage filmStorage : List.of(new InMemoryFilmStorage(List.of(), filmLog),
+                new ColumnarFilmStorage(List.of(), filmLog))) {
+            filmLog.failing = false;
+            long id = filmStorage.add(film("Старое", 90)).getId();
+            filmLog.failing = true;
+            Film update = film("Новое", 100);
+            update.setId(id);
+
+            assertThrows(UncheckedIOException.class, () -> filmStorage.add(film("Незаписанное", 90)));
+            assertThrows(UncheckedIOException.class, () -> filmStorage.update(update));
+
+            assertEquals(1, filmStorage.size());
+            assertFalse(filmStorage.contains(id + 1), "Незаписанный в журнал фильм не должен быть виден");
+            assertEquals("Старое", filmStorage.findById(id).orElseThrow().getName());
+        }
+    }
+
+    @Test
+    void testFailedLogWriteReleasesUserKeys() {
+        FailingLog<User> userLog = new FailingLog<>();
+        for (UserStorage userStorage : List.of(new InMemoryUserStorage(List.of(), userLog),
+                new ColumnarUserStorage(List.of(), userLog))) {
+            userLog.failing = false;
+            long id = userStorage.add(user("first")).getId();
+            userLog.failing = true;
+            User renamed = user("renamed");
+            renamed.setId(id);
+
+            assertThrows(UncheckedIOException.class, () -> userStorage.add(user("second")));
+            assertThrows(UncheckedIOException.class, () -> userStorage.update(renamed));
+            assertThrows(UncheckedIOException.class,
+                    () -> userStorage.addAllAtomically(List.of(user("third"), user("fourth"))));
+
+            assertEquals(1, userStorage.size());
+            assertTrue(userStorage.findByLogin("second").isEmpty());
+            assertEquals(id, userStorage.findByLogin("first").orElseThrow().getId());
+            assertEquals(id, userStorage.findByEmail("first@mail.ru").orElseThrow().getId(),
+                    "Ключи пользователя не должны освобождаться при неудачном обновлении");
+            userLog.failing = false;
+            renamed.setId(id);
+            assertEquals("renamed", userStorage.update(renamed).orElseThrow().getLogin());
+            userStorage.add(user("second"));
+            assertTrue(userStorage.addAllAtomically(List.of(user("third"), user("fourth"))).isEmpty(),
+                    "Ключи, занятые для незаписанных изменений, должны освободиться");
+            assertEquals(4, userStorage.size());
+        }
+    }
+
+    /**
+     * Сравнивает занятую кучу двух хранилищ с одинаковыми фильмами. Данные похожи на настоящие: названия
+     * уникальны, а описания часто повторяются.
+     */
+    @Test
+    void testColumnarFilmStorageUsesLessHeap() {
+        long objects = retainedHeap(() -> fill(new InMemoryFilmStorage()));
+        long columnar = retainedHeap(() -> fill(new ColumnarFilmStorage()));
+
+        System.out.printf("Куча на %d фильмов: objects %d КБ, columnar %d КБ%n",
+                FOOTPRINT_FILMS, objects / 1024, columnar / 1024);
+        assertTrue(columnar * 2 < objects,
+                "Колоночное хранилище должно занимать меньше половины памяти: " + columnar + " из " + objects);
+    }
+
+    private static FilmStorage fill(FilmStorage filmStorage) {
+        List<Film> films = new ArrayList<>(10_000);
+        for (int i = 0; i < FOOTPRINT_FILMS; i++) {
+            Film film = film("Фильм номер " + i, 60 + i % 120);
+            film.setDescription("Описание жанра " + i % 500);
+            film.setReleaseDate(LocalDate.of(1950, 1, 1).plusDays(i % 25_000));
+            films.add(film);
+            if (films.size() == 10_000) {
+                filmStorage.addAll(films);
+                films = new ArrayList<>(10_000);
+            }
+        }
+        return filmStorage;
+    }
+
+    private static long retainedHeap(Supplier<FilmStorage> loader) {
+        long before = usedHeap();
+        FilmStorage filmStorage = loader.get();
+        long after = usedHeap();
+        assertEquals(FOOTPRINT_FILMS, filmStorage.size());
+        Reference.reachabilityFence(filmStorage);
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private static void runConcurrently(int writers, Writer writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                int writerId = i;
+                futures.add(executor.submit(() -> {
+                    writer.write(writerId);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Film film(String name, int duration) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(1999, 12, 31));
+        film.setDuration(duration);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    private static class FailingLog<T> implements EntityLog<T> {
+        boolean failing;
+
+        @Override
+        public void append(T entity, Runnable apply) {
+            if (failing) {
+                throw new UncheckedIOException(new IOException("Нет места на диске"));
+            }
+            apply.run();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(int writerId) throws Exception;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityCacheTest {
+
+    private final EntityCache<Film> cache = new EntityCache<>("films",
+            new ObjectMapper().findAndRegisterModules().writer(), Film::getId, 100,
+            new SimpleMeterRegistry());
+
+    @Test
+    void testHitDoesNotCallLoader() {
+        AtomicInteger loads = new AtomicInteger();
+        Film film = film("Cached");
+
+        cache.get(1, id -> {
+            loads.incrementAndGet();
+            return Optional.of(film);
+        });
+        cache.get(1, id -> {
+            loads.incrementAndGet();
+            return Optional.of(film);
+        });
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testInvalidationDuringLoadDropsLoadedBytes() {
+        Film stale = film("Stale");
+        Film fresh = film("Fresh");
+
+        byte[] loaded = cache.get(1, id -> {
+            cache.updated(stale, fresh);
+            return Optional.of(stale);
+        }).orElseThrow();
+        byte[] next = cache.get(1, id -> Optional.of(fresh)).orElseThrow();
+
+        assertTrue(new String(loaded, StandardCharsets.UTF_8).contains("Stale"));
+        assertTrue(new String(next, StandardCharsets.UTF_8).contains("Fresh"),
+                "Сброс во время загрузки не должен оставлять в кэше устаревшую сущность");
+    }
+
+    @Test
+    void testMissingEntityIsNotCached() {
+        assertTrue(cache.get(1, id -> Optional.empty()).isEmpty());
+        assertTrue(cache.get(1, id -> Optional.of(film("Added"))).isPresent());
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setId(1L);
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+}
@@ -1,22 +1,59 @@
 package ru.yandex.practicum.filmorate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
 import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikes;
+import ru.yandex.practicum.filmorate.storage.film.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.validation.FilmRules;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class FilmControllerTest {
     private FilmController filmController;
+    private SimpleMeterRegistry meterRegistry;
+    private InMemoryUserStorage userStorage;
+    private FilmSearchIndex filmSearchIndex;
 
     @BeforeEach
     void setUp() {
-        filmController = new FilmController();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        meterRegistry = new SimpleMeterRegistry();
+        FilmRangeIndex filmRangeIndex = new FilmRangeIndex();
+        filmSearchIndex = new FilmSearchIndex();
+        EntityCache<Film> filmCache = new EntityCache<>("films", objectMapper.writerFor(Film.class), Film::getId,
+                100, meterRegistry);
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(
+                List.of(filmRangeIndex, filmSearchIndex, filmCache));
+        userStorage = new InMemoryUserStorage();
+        filmController = new FilmController(filmStorage, userStorage, objectMapper, filmRangeIndex, filmSearchIndex,
+                new FilmLikes(), filmCache, FilmRules.compile(meterRegistry, false));
     }
 
     @Test
@@ -89,7 +126,7 @@ public class FilmControllerTest {
         assertEquals(120, addedFilm.getDuration());
         assertEquals(LocalDate.of(2000, 1, 1), addedFilm.getReleaseDate());
 
-        Collection<Film> allFilms = filmController.getAllFilms();
+        Collection<Film> allFilms = filmController.getAllFilms(null, null);
         assertEquals(1, allFilms.size());
     }
 
@@ -119,6 +156,289 @@ public class FilmControllerTest {
         assertEquals(LocalDate.of(2001, 1, 1), updatedFilm.getReleaseDate());
         assertEquals(150, updatedFilm.getDuration());
 
-        assertEquals(1, filmController.getAllFilms().size());
+        assertEquals(1, filmController.getAllFilms(null, null).size());
+    }
+
+    @Test
+    void testGetFilmsPage() {
+        for (int i = 1; i <= 5; i++) {
+            filmController.addFilm(film("Film " + i));
+        }
+
+        List<Long> firstPage = filmController.getAllFilms(null, 2).stream().map(Film::getId).toList();
+        List<Long> secondPage = filmController.getAllFilms(2L, 2).stream().map(Film::getId).toList();
+        List<Long> lastPage = filmController.getAllFilms(4L, 2).stream().map(Film::getId).toList();
+
+        assertEquals(List.of(1L, 2L), firstPage);
+        assertEquals(List.of(3L, 4L), secondPage);
+        assertEquals(List.of(5L), lastPage);
+        assertTrue(filmController.getAllFilms(5L, 2).isEmpty());
+    }
+
+    @Test
+    void testFullPageLinksToNextPage() {
+        for (int i = 1; i <= 3; i++) {
+            filmController.addFilm(film("Film " + i));
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/films");
+        request.setQueryString("limit=2");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        try {
+            filmController.getAllFilms(null, 2);
+            assertEquals("<http://localhost/films?after=2&limit=2>; rel=\"next\"",
+                    response.getHeader(HttpHeaders.LINK));
+
+            MockHttpServletResponse lastResponse = new MockHttpServletResponse();
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, lastResponse));
+            filmController.getAllFilms(2L, 2);
+            assertNull(lastResponse.getHeader(HttpHeaders.LINK), "У последней страницы нет ссылки на следующую");
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void testGetFilmsPageWithWrongLimit() {
+        ValidationException exception = assertThrows(ValidationException.class, () -> {
+            filmController.getAllFilms(null, 0);
+        });
+        assertEquals("Параметр limit должен быть от 1 до 1000", exception.getMessage());
+    }
+
+    @Test
+    void testStreamFilms() throws IOException {
+        for (int i = 1; i <= 3; i++) {
+            filmController.addFilm(film("Film " + i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        StreamingResponseBody body = filmController.streamFilms(1L).getBody();
+        assertNotNull(body);
+        body.writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length, "Каждый фильм после курсора должен быть в отдельной строке");
+        assertTrue(lines[0].contains("\"id\":2"));
+        assertTrue(lines[1].contains("\"id\":3"));
+    }
+
+    @Test
+    void testAddFilmsBatchFromJsonArray() throws IOException {
+        String body = """
+                [
+                  {"name": "Film 1", "description": "D", "releaseDate": "2000-01-01", "duration": 100},
+                  {"name": "", "description": "D", "releaseDate": "2000-01-01", "duration": 100},
+                  {"name": "Film 3", "description": "D", "releaseDate": "2000-01-01", "duration": 100}
+                ]""";
+
+        BatchResult result = filmController.addFilms(stream(body), false);
+
+        assertEquals(2, result.getAdded());
+        assertEquals(1, result.getRejected());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertEquals("Название не может быть пустым", result.getErrors().get(0).getMessage());
+        assertEquals(List.of(1L, 2L), filmController.getAllFilms(null, null).stream().map(Film::getId).toList());
+    }
+
+    @Test
+    void testAddFilmsBatchFromNdjson() throws IOException {
+        String body = """
+                {"name": "Film 1", "description": "D", "releaseDate": "2000-01-01", "duration": 100}
+                {"name": "Film 2", "description": "D", "releaseDate": "2000-01-01", "duration": 100}
+                """;
+
+        BatchResult result = filmController.addFilms(stream(body), false);
+
+        assertEquals(2, result.getAdded());
+        assertEquals(0, result.getRejected());
+        assertEquals(2, filmController.getAllFilms(null, null).size());
+    }
+
+    @Test
+    void testAtomicFilmsBatchIsRejectedAsWhole() throws IOException {
+        String body = """
+                {"name": "Film 1", "description": "D", "releaseDate": "2000-01-01", "duration": 100}
+                {"name": "Film 2", "description": "D", "releaseDate": "1800-01-01", "duration": 100}
+                """;
+
+        BatchResult result = filmController.addFilms(stream(body), true);
+
+        assertEquals(0, result.getAdded());
+        assertEquals(2, result.getRejected());
+        assertEquals(1, result.getErrors().size());
+        assertTrue(filmController.getAllFilms(null, null).isEmpty(), "При ошибке не должно быть добавлено ничего");
+    }
+
+    @Test
+    void testGetFilmsReleasedBetween() {
+        Film old = filmController.addFilm(film("Old", LocalDate.of(1950, 5, 1), 90));
+        Film recent = filmController.addFilm(film("Recent", LocalDate.of(2005, 3, 1), 120));
+        filmController.addFilm(film("New", LocalDate.of(2020, 1, 1), 100));
+
+        List<Film> found = filmController.getFilmsReleasedBetween(LocalDate.of(1950, 1, 1), LocalDate.of(2010, 1, 1), null);
+
+        assertEquals(List.of(old.getId(), recent.getId()), found.stream().map(Film::getId).toList());
+    }
+
+    @Test
+    void testGetFilmsByDurationAfterUpdate() {
+        Film first = filmController.addFilm(film("First", LocalDate.of(2000, 1, 1), 80));
+        Film second = filmController.addFilm(film("Second", LocalDate.of(2000, 1, 1), 150));
+
+        Film update = film("Second", LocalDate.of(2000, 1, 1), 85);
+        update.setId(second.getId());
+        filmController.updateFilm(update);
+
+        List<Film> shortFilms = filmController.getFilmsByDuration(1, 89, null);
+        assertEquals(List.of(first.getId(), second.getId()), shortFilms.stream().map(Film::getId).toList(),
+                "Индекс должен учитывать обновленную продолжительность");
+        assertTrue(filmController.getFilmsByDuration(100, 200, null).isEmpty());
+    }
+
+    @Test
+    void testSearchFilms() {
+        Film matrix = filmController.addFilm(film("Матрица", "Хакер Нео узнаёт правду о мире"));
+        Film hackers = filmController.addFilm(film("Hackers", "Teenage hackers and a conspiracy"));
+        Film other = filmController.addFilm(film("Ёлки", "Новогодняя комедия про хакера"));
+
+        assertEquals(List.of(matrix.getId(), other.getId()), ids(filmController.searchFilms("хакер", null)),
+                "Точное совпадение должно быть выше совпадения по префиксу");
+        assertEquals(List.of(hackers.getId()), ids(filmController.searchFilms("HACK", null)));
+        assertEquals(List.of(other.getId()), ids(filmController.searchFilms("елки", null)));
+        assertEquals(List.of(matrix.getId(), other.getId()), ids(filmController.searchFilms("хакер правду", null)),
+                "Фильм, совпавший с большим числом слов, должен быть выше");
+    }
+
+    @Test
+    void testSearchFilmsAfterUpdate() {
+        Film film = filmController.addFilm(film("Old title", "Description"));
+
+        Film update = film("New title", "Description");
+        update.setId(film.getId());
+        filmController.updateFilm(update);
+
+        assertTrue(filmController.searchFilms("old", null).isEmpty(), "Старое название не должно находиться");
+        assertEquals(List.of(film.getId()), ids(filmController.searchFilms("new", null)));
+    }
+
+    @Test
+    void testRenamesDoNotGrowSearchIndex() {
+        Film film = filmController.addFilm(film("Title 0", "Description"));
+        int terms = filmSearchIndex.termCount();
+
+        for (int i = 1; i <= 100; i++) {
+            Film update = film("Title " + i, "Description");
+            update.setId(film.getId());
+            filmController.updateFilm(update);
+        }
+
+        assertEquals(terms, filmSearchIndex.termCount(), "Слова, в которых не осталось фильмов, должны удаляться");
+        assertTrue(filmController.searchFilms("0", null).isEmpty());
+    }
+
+    @Test
+    void testGetFilmById() {
+        Film film = filmController.addFilm(film("Film"));
+
+        String json = new String(filmController.getFilm(film.getId()), StandardCharsets.UTF_8);
+
+        assertTrue(json.contains("\"id\":" + film.getId()));
+        assertTrue(json.contains("\"name\":\"Film\""));
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> filmController.getFilm(999));
+        assertEquals("Фильм с ID 999 не найден", exception.getMessage());
+    }
+
+    @Test
+    void testGetFilmByIdIsCachedAndInvalidatedOnUpdate() {
+        Film film = filmController.addFilm(film("Film"));
+        filmController.getFilm(film.getId());
+        filmController.getFilm(film.getId());
+
+        Film update = film("Updated film");
+        update.setId(film.getId());
+        filmController.updateFilm(update);
+        String json = new String(filmController.getFilm(film.getId()), StandardCharsets.UTF_8);
+
+        assertTrue(json.contains("Updated film"));
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "films").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "films").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testPopularFilmsFollowLikes() {
+        long first = filmController.addFilm(film("First")).getId();
+        long second = filmController.addFilm(film("Second")).getId();
+        long third = filmController.addFilm(film("Third")).getId();
+        long[] users = new long[3];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = userStorage.add(user("user" + i)).getId();
+        }
+
+        assertEquals(List.of(first, second, third), ids(filmController.getPopularFilms(null)),
+                "Без лайков фильмы идут по возрастанию ID");
+
+        filmController.addLike(third, users[0]);
+        filmController.addLike(third, users[1]);
+        filmController.addLike(second, users[2]);
+        filmController.addLike(third, users[0]);
+        assertEquals(List.of(third, second, first), ids(filmController.getPopularFilms(null)));
+        assertEquals(List.of(third), ids(filmController.getPopularFilms(1)));
+
+        filmController.removeLike(third, users[0]);
+        filmController.removeLike(third, users[1]);
+        assertEquals(List.of(second, first, third), ids(filmController.getPopularFilms(10)));
+    }
+
+    @Test
+    void testLikeUnknownFilmOrUser() {
+        long filmId = filmController.addFilm(film("Film")).getId();
+        long userId = userStorage.add(user("user")).getId();
+
+        NotFoundException filmError = assertThrows(NotFoundException.class,
+                () -> filmController.addLike(999, userId));
+        assertEquals("Фильм с ID 999 не найден", filmError.getMessage());
+        NotFoundException userError = assertThrows(NotFoundException.class,
+                () -> filmController.removeLike(filmId, 999));
+        assertEquals("Пользователь с ID 999 не найден", userError.getMessage());
+        assertThrows(ValidationException.class, () -> filmController.getPopularFilms(0));
+    }
+
+    private static List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).toList();
+    }
+
+    private static Film film(String name, String description) {
+        Film film = film(name);
+        film.setDescription(description);
+        return film;
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Film film(String name) {
+        return film(name, LocalDate.of(2000, 1, 1), 120);
+    }
+
+    private static Film film(String name, LocalDate releaseDate, int duration) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(releaseDate);
+        film.setDuration(duration);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
     }
 }
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FriendGraphTest {
+
+    @Test
+    void testSuggestionsRankByCommonFriends() {
+        FriendGraph graph = new FriendGraph();
+        graph.addFriends(1, 2);
+        graph.addFriends(1, 3);
+        graph.addFriends(2, 4);
+        graph.addFriends(3, 4);
+        graph.addFriends(2, 5);
+        graph.addFriends(2, 3);
+
+        assertArrayEquals(new long[]{4, 5}, graph.suggestFriends(1, 10));
+        assertArrayEquals(new long[]{4}, graph.suggestFriends(1, 1));
+    }
+
+    @Test
+    void testFriendWithMoreFriendsThanScanLimitStillGivesSuggestions() {
+        FriendGraph graph = new FriendGraph();
+        graph.addFriends(1, 2);
+        for (long id = 3; id < 100_000; id++) {
+            graph.addFriends(2, id);
+        }
+
+        long[] suggestions = graph.suggestFriends(1, 5);
+
+        assertEquals(5, suggestions.length, "Лимит просмотра должен обрезать набор друзей, а не отбрасывать его");
+        for (long id : suggestions) {
+            assertTrue(id > 2);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramTest {
+
+    @Test
+    void testCountsKeysInsideAndOutsideRange() {
+        Histogram histogram = new Histogram(1900, 2100);
+        histogram.add(2000);
+        histogram.add(2000);
+        histogram.add(1800);
+        histogram.add(3000);
+        histogram.remove(3000);
+
+        assertEquals(new TreeMap<>(Map.of(1800, 1L, 2000, 2L)), histogram.snapshot());
+    }
+
+    @Test
+    void testOutliersThatDropToZeroDisappear() {
+        Histogram histogram = new Histogram(0, 10);
+        IntStream.range(100, 10_100).forEach(histogram::add);
+        IntStream.range(100, 10_100).forEach(histogram::remove);
+        histogram.add(500);
+
+        assertEquals(new TreeMap<>(Map.of(500, 1L)), histogram.snapshot());
+    }
+
+    @Test
+    void testAddAllMergesOutliers() {
+        Histogram histogram = new Histogram(0, 10);
+        Histogram other = new Histogram(0, 10);
+        histogram.add(5);
+        histogram.add(-1);
+        other.add(5);
+        other.add(-1);
+        other.add(20);
+
+        histogram.addAll(other);
+
+        assertEquals(new TreeMap<>(Map.of(-1, 2L, 5, 2L, 20, 1L)), histogram.snapshot());
+    }
+}
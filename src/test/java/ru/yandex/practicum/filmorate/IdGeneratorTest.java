@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.IdGenerator;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdGeneratorTest {
+
+    @Test
+    void testIdsAreSequential() {
+        IdGenerator idGenerator = new IdGenerator();
+
+        assertEquals(1, idGenerator.next());
+        assertEquals(2, idGenerator.next());
+        assertEquals(2, idGenerator.lastId());
+    }
+
+    @Test
+    void testReserveBlock() {
+        IdGenerator idGenerator = new IdGenerator();
+        idGenerator.next();
+
+        assertEquals(2, idGenerator.reserve(10), "Блок должен начинаться со следующего свободного ID");
+        assertEquals(12, idGenerator.next(), "После блока нумерация должна продолжиться");
+        assertThrows(IllegalArgumentException.class, () -> idGenerator.reserve(0));
+    }
+
+    @Test
+    void testAdvanceToExistingData() {
+        IdGenerator idGenerator = new IdGenerator();
+
+        idGenerator.advanceTo(100);
+        idGenerator.advanceTo(50);
+
+        assertEquals(101, idGenerator.next(), "Меньшее значение не должно сдвигать нумерацию назад");
+    }
+
+    @Test
+    void testConcurrentIdsAreUnique() {
+        IdGenerator idGenerator = new IdGenerator();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 100_000).parallel().forEach(i -> ids.add(idGenerator.next()));
+
+        assertEquals(100_000, ids.size());
+        assertEquals(100_000, idGenerator.lastId());
+    }
+}
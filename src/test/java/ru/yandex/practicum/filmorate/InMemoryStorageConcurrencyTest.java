@@ -0,0 +1,163 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikes;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryStorageConcurrencyTest {
+    private static final int WRITERS = 32;
+    private static final int WRITES_PER_WRITER = 2_000;
+
+    @Test
+    void testConcurrentFilmAddsAreNotLost() throws Exception {
+        FilmStorage filmStorage = new InMemoryFilmStorage();
+
+        runConcurrently(writer -> {
+            for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                filmStorage.add(film("Film " + writer + "-" + i, 100));
+            }
+        });
+
+        assertEquals(WRITERS * WRITES_PER_WRITER, filmStorage.size(), "Ни одна запись не должна потеряться");
+        assertEquals(WRITERS * WRITES_PER_WRITER, filmStorage.findAll().stream().map(Film::getId).distinct().count(),
+                "ID фильмов должны быть уникальными");
+    }
+
+    @Test
+    void testConcurrentFilmUpdatesAreAtomic() throws Exception {
+        FilmStorage filmStorage = new InMemoryFilmStorage();
+        long filmId = filmStorage.add(film("Film", 1)).getId();
+
+        runConcurrently(writer -> {
+            for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                Film update = film("Film " + writer, writer + 1);
+                update.setId(filmId);
+                filmStorage.update(update);
+                Film stored = filmStorage.findById(filmId).orElseThrow();
+                assertEquals(stored.getName(), "Film " + (stored.getDuration() - 1),
+                        "Фильм не должен быть виден наполовину обновленным");
+            }
+        });
+
+        assertEquals(1, filmStorage.size());
+    }
+
+    @Test
+    void testConcurrentUserAddsAreNotLost() throws Exception {
+        UserStorage userStorage = new InMemoryUserStorage();
+
+        runConcurrently(writer -> {
+            for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                userStorage.add(user("login" + writer + "_" + i));
+            }
+        });
+
+        assertEquals(WRITERS * WRITES_PER_WRITER, userStorage.size(), "Ни одна запись не должна потеряться");
+        assertEquals(WRITERS * WRITES_PER_WRITER, userStorage.findAll().stream().map(User::getId).distinct().count(),
+                "ID пользователей должны быть уникальными");
+    }
+
+    @Test
+    void testConcurrentUsersWithSameEmailAreUnique() throws Exception {
+        UserStorage userStorage = new InMemoryUserStorage();
+        AtomicInteger added = new AtomicInteger();
+
+        runConcurrently(writer -> {
+            for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                User user = user("login" + writer + "_" + i);
+                user.setEmail("same" + i + "@mail.ru");
+                try {
+                    userStorage.add(user);
+                    added.incrementAndGet();
+                } catch (DuplicatedDataException ignored) {
+                    // email уже занят другим потоком
+                }
+            }
+        });
+
+        assertEquals(WRITES_PER_WRITER, added.get(), "Каждый email должен достаться ровно одному пользователю");
+        assertEquals(WRITES_PER_WRITER, userStorage.size());
+    }
+
+    @Test
+    void testConcurrentLikesOfHotFilmAreCounted() throws Exception {
+        FilmLikes filmLikes = new FilmLikes();
+        filmLikes.addLike(2, 1);
+
+        runConcurrently(writer -> {
+            for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                long userId = (long) writer * WRITES_PER_WRITER + i;
+                filmLikes.addLike(1, userId);
+                if (i % 2 == 1) {
+                    filmLikes.removeLike(1, userId);
+                }
+            }
+        });
+
+        assertEquals(WRITERS * WRITES_PER_WRITER / 2, filmLikes.countLikes(1), "Ни один лайк не должен потеряться");
+        assertArrayEquals(new long[]{1, 2}, filmLikes.findPopular(10),
+                "Рейтинг должен совпадать с числом лайков после всех обновлений");
+    }
+
+    private static void runConcurrently(Writer writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                int writerId = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    writer.write(writerId);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Film film(String name, int duration) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(duration);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(int writerId) throws Exception;
+    }
+}
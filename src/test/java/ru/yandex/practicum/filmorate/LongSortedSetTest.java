@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.LongSortedSet;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongSortedSetTest {
+
+    @Test
+    void testValuesStaySortedAndUnique() {
+        LongSortedSet set = new LongSortedSet();
+
+        assertTrue(set.add(5));
+        assertTrue(set.add(1));
+        assertTrue(set.add(3));
+        assertFalse(set.add(3), "Повторное добавление не должно менять множество");
+
+        assertArrayEquals(new long[]{1, 3, 5}, set.toArray());
+        assertTrue(set.contains(3));
+        assertFalse(set.contains(4));
+    }
+
+    @Test
+    void testOutOfOrderAddsMatchTreeSet() {
+        LongSortedSet set = new LongSortedSet();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            long value = random.nextInt(30_000);
+            if (i % 7 == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+            if (i % 1_000 == 0) {
+                assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), set.toArray());
+            }
+            assertEquals(expected.contains(value), set.contains(value));
+            assertEquals(expected.size(), set.size());
+        }
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), set.toArray());
+    }
+
+    @Test
+    void testAppendAfterRemovingLastKeepsBufferedValuesUnique() {
+        LongSortedSet set = new LongSortedSet();
+        set.add(1);
+        set.add(10);
+        set.add(5);
+        set.remove(10);
+
+        assertFalse(set.add(5));
+        assertTrue(set.add(7));
+        assertArrayEquals(new long[]{1, 5, 7}, set.toArray());
+        assertArrayEquals(new long[]{5, 7}, set.range(1, 10));
+    }
+
+    @Test
+    void testRemove() {
+        LongSortedSet set = new LongSortedSet();
+        LongStream.rangeClosed(1, 100).forEach(set::add);
+
+        LongStream.rangeClosed(1, 100).filter(value -> value % 10 != 0).forEach(set::remove);
+
+        assertFalse(set.remove(1));
+        assertEquals(10, set.size());
+        assertArrayEquals(LongStream.rangeClosed(1, 10).map(value -> value * 10).toArray(), set.toArray());
+    }
+
+    @Test
+    void testRange() {
+        LongSortedSet set = new LongSortedSet();
+        LongStream.rangeClosed(1, 10).map(value -> value * 10).forEach(set::add);
+
+        assertArrayEquals(new long[]{10, 20}, set.range(0, 2));
+        assertArrayEquals(new long[]{50, 60, 70}, set.range(45, 3));
+        assertArrayEquals(new long[]{60}, set.range(50, 1));
+        assertArrayEquals(new long[]{100}, set.range(90, 10));
+        assertArrayEquals(new long[0], set.range(100, 10));
+    }
+
+    @Test
+    void testIntersection() {
+        LongSortedSet small = new LongSortedSet();
+        LongSortedSet large = new LongSortedSet();
+        LongSortedSet empty = new LongSortedSet();
+        LongStream.of(3, 500, 4_000, 99_999, 200_000).forEach(small::add);
+        LongStream.range(0, 100_000).filter(value -> value % 2 == 1 || value == 4_000).forEach(large::add);
+
+        assertArrayEquals(new long[]{3, 4_000, 99_999}, LongSortedSet.intersection(small, large));
+        assertArrayEquals(new long[]{3, 4_000, 99_999}, LongSortedSet.intersection(large, small));
+        assertArrayEquals(new long[0], LongSortedSet.intersection(large, empty));
+        assertArrayEquals(large.toArray(), LongSortedSet.intersection(large, large));
+    }
+
+    @Test
+    void testConcurrentAdds() {
+        LongSortedSet set = new LongSortedSet();
+
+        LongStream.range(0, 50_000).parallel().forEach(set::add);
+
+        assertEquals(50_000, set.size());
+        assertArrayEquals(LongStream.range(0, 50_000).toArray(), set.toArray());
+    }
+}
@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.controller.UserController;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.StorageMetrics;
+import ru.yandex.practicum.filmorate.metrics.ValidationCounters;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikes;
+import ru.yandex.practicum.filmorate.storage.film.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.validation.FilmRules;
+import ru.yandex.practicum.filmorate.validation.UserRules;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+    private SimpleMeterRegistry meterRegistry;
+    private FilmController filmController;
+    private UserController userController;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        filmController = new FilmController(filmStorage, userStorage, objectMapper, new FilmRangeIndex(),
+                new FilmSearchIndex(), new FilmLikes(),
+                new EntityCache<>("films", objectMapper.writer(), Film::getId, 100, meterRegistry),
+                FilmRules.compile(meterRegistry, false));
+        userController = new UserController(userStorage, objectMapper,
+                new EntityCache<>("users", objectMapper.writer(), User::getId, 100, meterRegistry), new FriendGraph(),
+                UserRules.compile(meterRegistry, false, Clock.systemDefaultZone()));
+        new StorageMetrics(filmStorage, userStorage).bindTo(meterRegistry);
+    }
+
+    @Test
+    void testValidationCountersAreRegisteredUpFront() {
+        assertEquals(7, meterRegistry.find(ValidationCounters.METRIC_NAME).tag("entity", "film").counters().size());
+        assertEquals(4, meterRegistry.find(ValidationCounters.METRIC_NAME).tag("entity", "user").counters().size());
+        assertEquals(0, failures("film", "duration_not_positive"));
+    }
+
+    @Test
+    void testValidationFailureIsCountedByRule() {
+        Film film = new Film();
+        film.setName("Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(0);
+
+        assertThrows(ValidationException.class, () -> filmController.addFilm(film));
+        assertThrows(ValidationException.class, () -> filmController.addFilm(film));
+
+        assertEquals(2, failures("film", "duration_not_positive"));
+        assertEquals(0, failures("film", "name_blank"));
+
+        User user = new User();
+        user.setEmail("mail.ru");
+        user.setLogin("login");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+
+        assertThrows(ValidationException.class, () -> userController.addUser(user));
+        assertEquals(1, failures("user", "email_invalid"));
+    }
+
+    @Test
+    void testStorageSizeGauges() {
+        Film film = new Film();
+        film.setName("Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmController.addFilm(film);
+
+        assertEquals(1, meterRegistry.get(StorageMetrics.METRIC_NAME).tag("entity", "film").gauge().value());
+        assertEquals(0, meterRegistry.get(StorageMetrics.METRIC_NAME).tag("entity", "user").gauge().value());
+    }
+
+    private double failures(String entity, String rule) {
+        return meterRegistry.get(ValidationCounters.METRIC_NAME).tag("entity", entity).tag("rule", rule)
+                .counter().count();
+    }
+}
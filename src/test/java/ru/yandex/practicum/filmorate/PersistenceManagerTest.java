@@ -0,0 +1,228 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.persistence.BinarySnapshot;
+import ru.yandex.practicum.filmorate.storage.persistence.PersistenceManager;
+import ru.yandex.practicum.filmorate.storage.persistence.PersistenceProperties;
+import ru.yandex.practicum.filmorate.storage.persistence.RecordType;
+import ru.yandex.practicum.filmorate.storage.persistence.WriteAheadEntityLog;
+import ru.yandex.practicum.filmorate.storage.persistence.WriteAheadLog;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistenceManagerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @TempDir
+    Path directory;
+
+    private Node node;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        node = new Node();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        node.close();
+    }
+
+    @Test
+    void testRecoverFromLog() throws IOException {
+        Film film = node.filmStorage.add(film("Film"));
+        Film update = film("Updated film");
+        update.setId(film.getId());
+        node.filmStorage.update(update);
+        node.userStorage.add(user("login"));
+        node.close();
+
+        node = new Node();
+
+        assertEquals(1, node.filmStorage.size());
+        assertEquals("Updated film", node.filmStorage.findById(film.getId()).orElseThrow().getName());
+        assertEquals("login", node.userStorage.findByEmail("login@mail.ru").orElseThrow().getLogin());
+        node.filmStorage.awaitListeners();
+        assertEquals(List.of(film.getId()), node.searchIndex.search("updated", 10),
+                "Индексы должны заполняться при восстановлении");
+        assertEquals(film.getId() + 1, node.filmStorage.add(film("New film")).getId(),
+                "Нумерация ID должна продолжиться после восстановленных данных");
+    }
+
+    @Test
+    void testRecoverFromSnapshotAndLogTail() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            node.filmStorage.add(film("Film " + i));
+        }
+        node.manager.snapshot();
+        node.filmStorage.add(film("After snapshot"));
+        Film update = film("Updated after snapshot");
+        update.setId(1L);
+        node.filmStorage.update(update);
+        node.writeAheadLog.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().startsWith("snapshot-")).count());
+        }
+        node = new Node();
+
+        assertEquals(11, node.filmStorage.size());
+        assertEquals("Updated after snapshot", node.filmStorage.findById(1).orElseThrow().getName());
+        assertEquals("After snapshot", node.filmStorage.findById(11).orElseThrow().getName());
+        node.filmStorage.awaitListeners();
+        assertEquals(List.of(1L), node.searchIndex.search("updated", 10),
+                "Индексы должны получить и снимок, и изменения из журнала после него");
+        assertEquals(2, node.searchIndex.search("after", 10).size());
+    }
+
+    @Test
+    void testTornLogTailIsIgnored() throws IOException {
+        node.filmStorage.add(film("Film"));
+        long segment = node.writeAheadLog.currentSegment();
+        node.writeAheadLog.close();
+        Path segmentFile;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentFile = files.filter(file -> file.getFileName().toString().contains(String.valueOf(segment)))
+                    .findFirst()
+                    .orElseThrow();
+        }
+        Files.write(segmentFile, new byte[]{(byte) RecordType.FILM.ordinal(), 0, 0, 1}, StandardOpenOption.APPEND);
+
+        node = new Node();
+
+        assertEquals(1, node.filmStorage.size());
+    }
+
+    @Test
+    void testRollWaitsForAppliedRecords() throws Exception {
+        CountDownLatch appending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean applied = new AtomicBoolean();
+        Thread writer = Thread.ofVirtual().start(() -> node.writeAheadLog.append(RecordType.FILM, new byte[]{1}, () -> {
+            appending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            applied.set(true);
+        }));
+        appending.await();
+
+        CompletableFuture<Long> roll = CompletableFuture.supplyAsync(node.writeAheadLog::roll);
+        Thread.sleep(100);
+        assertFalse(roll.isDone(), "Новый сегмент не должен начаться, пока запись старого не применена");
+        release.countDown();
+        roll.get(5, TimeUnit.SECONDS);
+
+        assertTrue(applied.get());
+        writer.join();
+    }
+
+    @Test
+    void testBinarySnapshotRoundTrip() throws IOException {
+        Film film = film("Фильм");
+        film.setId(7L);
+        Film withoutDescription = film("Film");
+        withoutDescription.setId(8L);
+        withoutDescription.setDescription(null);
+        User user = user("login");
+        user.setId(3L);
+        BinarySnapshot.Writer writer = new BinarySnapshot.Writer();
+        writer.addFilms(List.of(film, withoutDescription));
+        writer.addUsers(List.of(user));
+        Path file = directory.resolve("snapshot.bin");
+        writer.writeTo(file);
+
+        try (BinarySnapshot snapshot = BinarySnapshot.open(file)) {
+            assertEquals(2, snapshot.filmCount());
+            assertEquals(1, snapshot.userCount());
+            assertEquals(film, snapshot.film(0));
+            assertEquals(withoutDescription, snapshot.film(1));
+            assertEquals(user, snapshot.user(0));
+            assertSame(snapshot.user(0).getLogin(), snapshot.user(0).getName(),
+                    "Одинаковые строки должны читаться из общего словаря");
+        }
+    }
+
+    @Test
+    void testCorruptedSnapshotIsRejected() throws IOException {
+        BinarySnapshot.Writer writer = new BinarySnapshot.Writer();
+        Film film = film("Film");
+        film.setId(1L);
+        writer.addFilms(List.of(film));
+        Path file = directory.resolve("snapshot.bin");
+        writer.writeTo(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> BinarySnapshot.open(file));
+    }
+
+    private class Node {
+        final WriteAheadLog writeAheadLog;
+        final FilmSearchIndex searchIndex = new FilmSearchIndex();
+        final InMemoryFilmStorage filmStorage;
+        final InMemoryUserStorage userStorage;
+        final PersistenceManager manager;
+
+        Node() throws IOException {
+            writeAheadLog = WriteAheadLog.open(directory);
+            filmStorage = new InMemoryFilmStorage(List.of(searchIndex),
+                    new WriteAheadEntityLog<>(writeAheadLog, RecordType.FILM, objectMapper.writer()));
+            userStorage = new InMemoryUserStorage(List.of(),
+                    new WriteAheadEntityLog<>(writeAheadLog, RecordType.USER, objectMapper.writer()));
+            PersistenceProperties properties = new PersistenceProperties(directory, 1_000_000, Duration.ofHours(1));
+            manager = new PersistenceManager(properties, writeAheadLog, filmStorage, userStorage, objectMapper);
+            manager.recover();
+        }
+
+        void close() throws IOException {
+            manager.close();
+            writeAheadLog.close();
+        }
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
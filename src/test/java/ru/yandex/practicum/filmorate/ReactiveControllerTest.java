@@ -0,0 +1,134 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.controller.ReactiveFilmController;
+import ru.yandex.practicum.filmorate.controller.ReactiveUserController;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.validation.FilmRules;
+import ru.yandex.practicum.filmorate.validation.UserRules;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReactiveControllerTest {
+    private final AtomicInteger pagesLoaded = new AtomicInteger();
+    private InMemoryFilmStorage filmStorage;
+    private ReactiveFilmController reactiveFilmController;
+    private ReactiveUserController reactiveUserController;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        filmStorage = new InMemoryFilmStorage() {
+            @Override
+            public List<Film> findPage(long afterId, int limit) {
+                pagesLoaded.incrementAndGet();
+                return super.findPage(afterId, limit);
+            }
+        };
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        reactiveFilmController = new ReactiveFilmController(filmStorage, objectMapper,
+                FilmRules.compile(meterRegistry, false));
+        reactiveUserController = new ReactiveUserController(userStorage, objectMapper,
+                UserRules.compile(meterRegistry, false, Clock.systemDefaultZone()));
+    }
+
+    @Test
+    void testFluxReturnsAllFilmsInIdOrder() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            films.add(film("Film " + i));
+        }
+        filmStorage.addAll(films);
+
+        List<Film> streamed = reactiveFilmController.getFilms(null).collectList().block();
+
+        assertNotNull(streamed);
+        assertEquals(1_200, streamed.size());
+        assertEquals(1L, streamed.get(0).getId());
+        assertEquals(1_200L, streamed.get(1_199).getId());
+        assertEquals(List.of(1_199L, 1_200L),
+                reactiveFilmController.getFilms(1_198L).map(Film::getId).collectList().block());
+    }
+
+    @Test
+    void testFluxAcceptsNegativeCursor() {
+        filmStorage.addAll(List.of(film("First"), film("Second")));
+
+        assertEquals(List.of(1L, 2L), reactiveFilmController.getFilms(-1L).map(Film::getId).collectList().block(),
+                "Отрицательный курсор, как и в постраничной выдаче, означает выдачу с начала");
+    }
+
+    @Test
+    void testFluxLoadsPagesOnDemand() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            films.add(film("Film " + i));
+        }
+        filmStorage.addAll(films);
+
+        List<Film> firstFilms = reactiveFilmController.getFilms(null).take(3).collectList().block();
+
+        assertEquals(3, firstFilms.size());
+        assertEquals(1, pagesLoaded.get(), "Страницы сверх запрошенных записей не должны читаться");
+    }
+
+    @Test
+    void testStreamedBatchIngest() {
+        String body = """
+                {"name":"Film","description":"Description","releaseDate":"2000-01-01","duration":120}
+                {"name":"","description":"Description","releaseDate":"2000-01-01","duration":120}
+                {"name":"Film 2","description":"Description","releaseDate":"2000-01-01","duration":90}
+                """;
+
+        BatchResult result = reactiveFilmController.addFilms(stream(body), false).block();
+
+        assertNotNull(result);
+        assertEquals(2, result.getAdded());
+        assertEquals(1, result.getRejected());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertEquals(2, filmStorage.size());
+    }
+
+    @Test
+    void testStreamedBatchIngestReportsMalformedJson() {
+        String body = "[{\"email\":\"user@mail.ru\",\"login\":\"user\",\"birthday\":\"2000-01-01\"}, {bad";
+
+        BatchResult result = reactiveUserController.addUsers(stream(body), false).block();
+
+        assertNotNull(result);
+        assertEquals(1, result.getAdded());
+        assertEquals(1, result.getRejected());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Некорректный JSON"));
+        List<User> users = reactiveUserController.getUsers(null).collectList().block();
+        assertEquals("user", users.get(0).getName());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        return film;
+    }
+}
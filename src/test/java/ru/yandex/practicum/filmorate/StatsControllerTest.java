@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.controller.StatsController;
+import ru.yandex.practicum.filmorate.model.CatalogStats;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmAggregates;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserAggregates;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatsControllerTest {
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private StatsController statsController;
+
+    @BeforeEach
+    void setUp() {
+        FilmAggregates filmAggregates = new FilmAggregates();
+        UserAggregates userAggregates = new UserAggregates();
+        filmStorage = new InMemoryFilmStorage(List.of(filmAggregates));
+        userStorage = new InMemoryUserStorage(List.of(userAggregates));
+        statsController = new StatsController(filmStorage, userStorage, filmAggregates, userAggregates);
+    }
+
+    @Test
+    void testEmptyCatalog() {
+        CatalogStats stats = statsController.getStats();
+
+        assertEquals(0, stats.getFilms());
+        assertTrue(stats.getFilmsByYear().isEmpty());
+        assertNull(stats.getAverageDuration());
+        assertNull(stats.getMedianDuration());
+        assertEquals(0, stats.getUsers());
+    }
+
+    @Test
+    void testFilmsByYearAndDuration() {
+        for (int duration = 1; duration <= 100; duration++) {
+            filmStorage.add(film(duration % 2 == 0 ? 2000 : 2010, duration));
+        }
+
+        CatalogStats stats = statsController.getStats();
+
+        assertEquals(100, stats.getFilms());
+        assertEquals(Map.of(2000, 50L, 2010, 50L), stats.getFilmsByYear());
+        assertEquals(50.5, stats.getAverageDuration());
+        assertEquals(50, stats.getMedianDuration());
+        assertEquals(90, stats.getP90Duration());
+        assertEquals(99, stats.getP99Duration());
+    }
+
+    @Test
+    void testUpdateMovesFilmBetweenBuckets() {
+        Film film = filmStorage.add(film(2000, 90));
+        filmStorage.add(film(2000, 120));
+
+        Film changed = film(1999, 3000);
+        changed.setId(film.getId());
+        filmStorage.update(changed);
+
+        CatalogStats stats = statsController.getStats();
+        assertEquals(Map.of(1999, 1L, 2000, 1L), stats.getFilmsByYear());
+        assertEquals(1560.0, stats.getAverageDuration());
+        assertEquals(3000, stats.getP99Duration(), "Продолжительность вне основного диапазона тоже учитывается");
+    }
+
+    @Test
+    void testUsersByAge() {
+        int year = Year.now().getValue();
+        userStorage.add(user("first", LocalDate.of(year - 30, 1, 1)));
+        userStorage.add(user("second", LocalDate.of(year - 30, 12, 31)));
+        User user = userStorage.add(user("third", LocalDate.of(year - 20, 6, 1)));
+
+        User changed = user("third", LocalDate.of(year - 40, 6, 1));
+        changed.setId(user.getId());
+        userStorage.update(changed);
+
+        CatalogStats stats = statsController.getStats();
+        assertEquals(3, stats.getUsers());
+        assertEquals(Map.of(30, 2L, 40, 1L), stats.getUsersByAge());
+    }
+
+    @Test
+    void testRecomputeMatchesAggregates() {
+        for (int i = 0; i < 1000; i++) {
+            filmStorage.add(film(1900 + i % 120, 1 + i % 300));
+            userStorage.add(user("user" + i, LocalDate.of(1950 + i % 60, 1 + i % 12, 1)));
+        }
+        Film changed = film(2020, 45);
+        changed.setId(1L);
+        filmStorage.update(changed);
+
+        CatalogStats.Check check = statsController.recomputeStats();
+
+        assertFalse(check.isDrift());
+        assertEquals(check.getAggregated(), check.getRecomputed());
+        assertEquals(1000, check.getRecomputed().getFilms());
+    }
+
+    @Test
+    void testRecomputeDetectsDrift() {
+        FilmAggregates staleAggregates = new FilmAggregates();
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        storage.add(film(2000, 100));
+        StatsController controller = new StatsController(storage, userStorage, staleAggregates,
+                new UserAggregates());
+
+        CatalogStats.Check check = controller.recomputeStats();
+
+        assertTrue(check.isDrift());
+        assertEquals(0, check.getAggregated().getFilms());
+        assertEquals(1, check.getRecomputed().getFilms());
+    }
+
+    private static Film film(int year, int duration) {
+        Film film = new Film();
+        film.setName("Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(year, 3, 1));
+        film.setDuration(duration);
+        return film;
+    }
+
+    private static User user(String login, LocalDate birthday) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(birthday);
+        return user;
+    }
+}
@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.StorageListener;
+import ru.yandex.practicum.filmorate.storage.StorageVersion;
+import ru.yandex.practicum.filmorate.storage.film.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorageListenersTest {
+
+    @Test
+    void testBackgroundListenersCatchUpInOrder() throws InterruptedException {
+        BlockingIndex index = new BlockingIndex();
+        StorageVersion<Film> version = new StorageVersion<>();
+        InMemoryFilmStorage storage = new InMemoryFilmStorage(List.of(index, version));
+
+        storage.restoreAll(List.of(film(1, "First"), film(2, "Second"), film(3, "Third")));
+        assertTrue(index.started.await(5, TimeUnit.SECONDS));
+        storage.update(film(1, "Updated"));
+        Film added = storage.add(film(0, "Added"));
+
+        assertEquals("Updated", storage.findById(1).orElseThrow().getName(),
+                "Хранилище должно отвечать на чтение, пока индекс догоняет его");
+        assertEquals(4, storage.size());
+        assertEquals(5, version.current(), "Версия должна меняться сразу, а не после восстановления индексов");
+        assertEquals(List.of("restored 1"), index.events);
+
+        index.release.countDown();
+        storage.awaitListeners();
+
+        assertEquals(List.of("restored 1", "restored 2", "restored 3", "updated 1", "added " + added.getId()),
+                index.events, "Изменения во время восстановления должны дойти до индекса после него и по порядку");
+        storage.update(film(2, "Direct"));
+        assertEquals("updated 2", index.events.get(index.events.size() - 1));
+    }
+
+    @Test
+    void testRestoreAllRequiresEmptyStorageAndAscendingIds() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+
+        assertThrows(IllegalArgumentException.class, () -> storage.restoreAll(List.of(film(2, "B"), film(1, "A"))));
+        InMemoryFilmStorage filled = new InMemoryFilmStorage();
+        filled.add(film(0, "A"));
+        assertThrows(IllegalStateException.class, () -> filled.restoreAll(List.of(film(5, "B"))));
+    }
+
+    @Test
+    void testBulkRestoredIndexesMatchIncrementalOnes() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            Film film = film(i, "Film " + (i % 7));
+            film.setReleaseDate(LocalDate.of(2000, 1, 1).plusDays(i % 5));
+            film.setDuration(90 + i % 3);
+            films.add(film);
+        }
+        FilmRangeIndex bulkRange = new FilmRangeIndex();
+        FilmSearchIndex bulkSearch = new FilmSearchIndex();
+        bulkRange.restoredAll(films);
+        bulkSearch.restoredAll(films);
+        FilmRangeIndex range = new FilmRangeIndex();
+        FilmSearchIndex search = new FilmSearchIndex();
+        films.forEach(range::added);
+        films.forEach(search::added);
+
+        LocalDate from = LocalDate.of(2000, 1, 2);
+        LocalDate to = LocalDate.of(2000, 1, 3);
+        assertEquals(range.findReleasedBetween(from, to, 100), bulkRange.findReleasedBetween(from, to, 100));
+        assertEquals(range.findDurationBetween(91, 91, 100), bulkRange.findDurationBetween(91, 91, 100));
+        assertEquals(search.search("film 3", 100), bulkSearch.search("film 3", 100));
+        assertEquals(search.termCount(), bulkSearch.termCount());
+    }
+
+    private static Film film(long id, String name) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private static class BlockingIndex implements StorageListener<Film> {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void added(Film film) {
+            events.add("added " + film.getId());
+        }
+
+        @Override
+        public void updated(Film oldFilm, Film newFilm) {
+            events.add("updated " + newFilm.getId());
+        }
+
+        @Override
+        public void restored(Film oldFilm, Film newFilm) {
+            events.add("restored " + newFilm.getId());
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public boolean restoresInBackground() {
+            return true;
+        }
+    }
+}
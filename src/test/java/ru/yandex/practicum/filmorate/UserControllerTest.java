@@ -1,22 +1,42 @@
 package ru.yandex.practicum.filmorate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
 import ru.yandex.practicum.filmorate.controller.UserController;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.validation.UserRules;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class UserControllerTest {
     private UserController userController;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
-        userController = new UserController();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        meterRegistry = new SimpleMeterRegistry();
+        EntityCache<User> userCache = new EntityCache<>("users", objectMapper.writerFor(User.class), User::getId,
+                100, meterRegistry);
+        userController = new UserController(new InMemoryUserStorage(List.of(userCache)), objectMapper, userCache,
+                new FriendGraph(), UserRules.compile(meterRegistry, false, Clock.systemDefaultZone()));
     }
 
     @Test
@@ -81,7 +101,7 @@ public class UserControllerTest {
         user.setName("Name");
         user.setEmail("Email@gmail.com");
         user.setLogin("login");
-        user.setBirthday(LocalDate.of(2026, 6, 8));
+        user.setBirthday(LocalDate.now().plusYears(1));
 
         ValidationException exception = assertThrows(ValidationException.class, () -> {
             userController.addUser(user);
@@ -117,7 +137,7 @@ public class UserControllerTest {
         assertEquals("Name", addedUser.getName());
         assertEquals(LocalDate.of(2001, 6, 8), addedUser.getBirthday());
 
-        Collection<User> allUsers = userController.getAllUsers();
+        Collection<User> allUsers = userController.getAllUsers(null, null);
         assertEquals(1, allUsers.size());
     }
 
@@ -147,8 +167,187 @@ public class UserControllerTest {
         assertEquals("Updated Name", updatedUser.getName());
         assertEquals(LocalDate.of(1991, 1, 1), updatedUser.getBirthday());
 
-        assertEquals(1, userController.getAllUsers().size());
+        assertEquals(1, userController.getAllUsers(null, null).size());
     }
 
+    @Test
+    void testAddUsersBatch() throws IOException {
+        String body = """
+                [
+                  {"email": "first@mail.ru", "login": "first", "birthday": "2001-06-08"},
+                  {"email": "second", "login": "second", "birthday": "2001-06-08"}
+                ]""";
+
+        BatchResult result = userController.addUsers(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), false);
+
+        assertEquals(1, result.getAdded());
+        assertEquals(1, result.getRejected());
+        assertEquals("Email не должен быть пустым и содержать @", result.getErrors().get(0).getMessage());
+        User added = userController.getAllUsers(null, null).iterator().next();
+        assertEquals("first", added.getName(), "В качестве имени должен использоваться логин");
+    }
+
+    @Test
+    void testAddUserWithTakenEmail() {
+        userController.addUser(user("mail@mail.ru", "first"));
+
+        DuplicatedDataException exception = assertThrows(DuplicatedDataException.class, () -> {
+            userController.addUser(user("MAIL@mail.ru", "second"));
+        });
+        assertEquals("Email MAIL@mail.ru уже используется", exception.getMessage());
+        assertThrows(DuplicatedDataException.class, () -> userController.addUser(user("other@mail.ru", "first")));
+        assertEquals(1, userController.getAllUsers(null, null).size());
+    }
+
+    @Test
+    void testFindUserByEmailAndLogin() {
+        User added = userController.addUser(user("mail@mail.ru", "login"));
+
+        assertEquals(added.getId(), userController.getUserByEmail("Mail@Mail.ru").getId());
+        assertEquals(added.getId(), userController.getUserByLogin("login").getId());
+        assertThrows(NotFoundException.class, () -> userController.getUserByLogin("unknown"));
+    }
+
+    @Test
+    void testUpdateUserChangesUniqueKeys() {
+        User added = userController.addUser(user("old@mail.ru", "old"));
+        userController.addUser(user("taken@mail.ru", "taken"));
+
+        User update = user("new@mail.ru", "new");
+        update.setId(added.getId());
+        userController.updateUser(update);
+
+        assertThrows(NotFoundException.class, () -> userController.getUserByEmail("old@mail.ru"));
+        assertThrows(NotFoundException.class, () -> userController.getUserByLogin("old"));
+        assertEquals(added.getId(), userController.getUserByEmail("new@mail.ru").getId());
+        assertEquals(added.getId(), userController.getUserByLogin("new").getId());
+
+        User conflicting = user("new@mail.ru", "taken");
+        conflicting.setId(added.getId());
+        assertThrows(DuplicatedDataException.class, () -> userController.updateUser(conflicting));
+        assertEquals("new", userController.getUserByEmail("new@mail.ru").getLogin(),
+                "Неудачное обновление не должно менять пользователя");
+        assertEquals(added.getId(), userController.getUserByEmail("new@mail.ru").getId());
+    }
+
+    @Test
+    void testAddUsersBatchWithDuplicates() throws IOException {
+        userController.addUser(user("taken@mail.ru", "taken"));
+        String body = """
+                {"email": "taken@mail.ru", "login": "first", "birthday": "2001-06-08"}
+                {"email": "second@mail.ru", "login": "second", "birthday": "2001-06-08"}
+                {"email": "third@mail.ru", "login": "second", "birthday": "2001-06-08"}
+                """;
 
+        BatchResult result = userController.addUsers(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), false);
+
+        assertEquals(1, result.getAdded());
+        assertEquals(2, result.getRejected());
+        assertEquals(List.of(0, 2), result.getErrors().stream().map(BatchResult.ItemError::getIndex).toList());
+        assertEquals(2, userController.getAllUsers(null, null).size());
+    }
+
+    @Test
+    void testAtomicUsersBatchWithDuplicatesIsRejectedAsWhole() throws IOException {
+        userController.addUser(user("taken@mail.ru", "taken"));
+        String body = """
+                {"email": "first@mail.ru", "login": "first", "birthday": "2001-06-08"}
+                {"email": "second@mail.ru", "login": "second", "birthday": "2001-06-08"}
+                {"email": "third@mail.ru", "login": "second", "birthday": "2001-06-08"}
+                """;
+
+        BatchResult result = userController.addUsers(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), true);
+
+        assertEquals(0, result.getAdded());
+        assertEquals(3, result.getRejected());
+        assertEquals(List.of(2), result.getErrors().stream().map(BatchResult.ItemError::getIndex).toList());
+        assertEquals(1, userController.getAllUsers(null, null).size(), "При конфликте не должно быть добавлено ничего");
+        assertDoesNotThrow(() -> userController.addUser(user("first@mail.ru", "first")),
+                "Ключи отклоненного пакета должны освободиться");
+    }
+
+    @Test
+    void testGetUserById() {
+        User user = userController.addUser(user("user@mail.ru", "user"));
+
+        String json = new String(userController.getUser(user.getId()), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"login\":\"user\""));
+
+        User update = user("new@mail.ru", "user");
+        update.setId(user.getId());
+        userController.updateUser(update);
+        json = new String(userController.getUser(user.getId()), StandardCharsets.UTF_8);
+        assertTrue(json.contains("new@mail.ru"), "После обновления кэш не должен отдавать старые данные");
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> userController.getUser(999));
+        assertEquals("Пользователь с ID 999 не найден", exception.getMessage());
+    }
+
+    @Test
+    void testFriendsAreMutual() {
+        long first = userController.addUser(user("first@mail.ru", "first")).getId();
+        long second = userController.addUser(user("second@mail.ru", "second")).getId();
+        long third = userController.addUser(user("third@mail.ru", "third")).getId();
+
+        userController.addFriend(first, second);
+        userController.addFriend(first, third);
+        userController.addFriend(first, second);
+
+        assertEquals(List.of(second, third), ids(userController.getFriends(first, null, null)));
+        assertEquals(List.of(first), ids(userController.getFriends(second, null, null)),
+                "Дружба должна быть взаимной");
+        assertEquals(List.of(third), ids(userController.getFriends(first, second, 10)));
+
+        userController.removeFriend(second, first);
+        assertEquals(List.of(third), ids(userController.getFriends(first, null, null)));
+        assertTrue(userController.getFriends(second, null, null).isEmpty());
+    }
+
+    @Test
+    void testCommonFriendsAndSuggestions() {
+        long[] ids = new long[6];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = userController.addUser(user("user" + i + "@mail.ru", "user" + i)).getId();
+        }
+        userController.addFriend(ids[0], ids[1]);
+        userController.addFriend(ids[0], ids[2]);
+        userController.addFriend(ids[3], ids[1]);
+        userController.addFriend(ids[3], ids[2]);
+        userController.addFriend(ids[4], ids[2]);
+        userController.addFriend(ids[5], ids[4]);
+
+        assertEquals(List.of(ids[1], ids[2]), ids(userController.getCommonFriends(ids[0], ids[3])));
+        assertTrue(userController.getCommonFriends(ids[0], ids[5]).isEmpty());
+        assertEquals(List.of(ids[3], ids[4]), ids(userController.getFriendSuggestions(ids[0], null)),
+                "Сначала должны идти пользователи с большим числом общих друзей");
+        assertEquals(List.of(ids[3]), ids(userController.getFriendSuggestions(ids[0], 1)));
+    }
+
+    @Test
+    void testFriendsOfUnknownUser() {
+        long id = userController.addUser(user("user@mail.ru", "user")).getId();
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> userController.addFriend(id, 999));
+        assertEquals("Пользователь с ID 999 не найден", exception.getMessage());
+        assertThrows(NotFoundException.class, () -> userController.getFriends(999, null, null));
+        assertThrows(NotFoundException.class, () -> userController.getCommonFriends(id, 999));
+        assertThrows(ValidationException.class, () -> userController.addFriend(id, id));
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+
+    private static User user(String email, String login) {
+        User user = new User();
+        user.setEmail(email);
+        user.setLogin(login);
+        user.setName("Name");
+        user.setBirthday(LocalDate.of(2001, 6, 8));
+        return user;
+    }
 }
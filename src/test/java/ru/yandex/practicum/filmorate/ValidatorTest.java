@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.ValidationCounters;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.validation.FilmRules;
+import ru.yandex.practicum.filmorate.validation.UserRules;
+import ru.yandex.practicum.filmorate.validation.Validator;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidatorTest {
+
+    @Test
+    void testFailFastReportsFirstViolation() {
+        Validator<Film, FilmRules.Rule> validator = FilmRules.compile(new SimpleMeterRegistry(), false);
+        Film film = new Film();
+        film.setDescription("a".repeat(201));
+
+        ValidationException e = assertThrows(ValidationException.class, () -> validator.validate(film));
+        assertEquals("Название не может быть пустым", e.getMessage());
+        assertEquals(0, e.getStackTrace().length, "Исключение валидации не должно заполнять стек");
+    }
+
+    @Test
+    void testCollectAllReportsEveryViolatedField() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Validator<Film, FilmRules.Rule> validator = FilmRules.compile(meterRegistry, true);
+        Film film = new Film();
+        film.setName("Film");
+        film.setDescription("a".repeat(201));
+        film.setDuration(0);
+
+        ValidationException e = assertThrows(ValidationException.class, () -> validator.validate(film));
+        assertEquals("Описание не может быть больше 200 символов; Дата релиза не может быть пустой; "
+                + "Продолжительность фильма не может быть отрицательным числом или 0", e.getMessage());
+        assertEquals(1, meterRegistry.counter(ValidationCounters.METRIC_NAME,
+                "entity", "film", "rule", "release_date_null").count());
+        assertEquals(0, meterRegistry.counter(ValidationCounters.METRIC_NAME,
+                "entity", "film", "rule", "release_date_too_early").count(),
+                "После нарушенного правила остальные правила поля не проверяются");
+    }
+
+    @Test
+    void testCheckReturnsViolationsWithoutThrowing() {
+        Validator<User, UserRules.Rule> validator = UserRules.compile(new SimpleMeterRegistry(), false,
+                Clock.systemDefaultZone());
+        User user = new User();
+        user.setEmail("user.mail.ru");
+        user.setLogin("user login");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+
+        List<Validator.Violation<UserRules.Rule>> violations = validator.check(user);
+
+        assertEquals(List.of(UserRules.Rule.EMAIL_INVALID, UserRules.Rule.LOGIN_INVALID),
+                violations.stream().map(Validator.Violation::rule).toList());
+    }
+
+    @Test
+    void testBirthdayIsComparedWithCurrentDate() {
+        MutableClock clock = new MutableClock(Instant.parse("2024-05-31T23:59:00Z"));
+        Validator<User, UserRules.Rule> validator = UserRules.compile(new SimpleMeterRegistry(), false, clock);
+        User user = new User();
+        user.setEmail("user@mail.ru");
+        user.setLogin("user");
+        user.setBirthday(LocalDate.of(2024, 6, 1));
+
+        assertThrows(ValidationException.class, () -> validator.validate(user));
+        clock.instant = Instant.parse("2024-06-01T00:00:00Z");
+        assertDoesNotThrow(() -> validator.validate(user), "После полуночи дата должна обновиться");
+        clock.instant = Instant.parse("2024-05-31T12:00:00Z");
+        assertThrows(ValidationException.class, () -> validator.validate(user),
+                "При переводе часов назад дата тоже должна обновиться");
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.ColumnarFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.persistence.RecordType;
+import ru.yandex.practicum.filmorate.storage.persistence.WriteAheadEntityLog;
+import ru.yandex.practicum.filmorate.storage.persistence.WriteAheadLog;
+import ru.yandex.practicum.filmorate.storage.user.ColumnarUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что операции хранилищ (объектных и колоночных) и кэша сущностей не закрепляют виртуальный поток
+ * за потоком-носителем.
+ * Запись ждет сброса журнала на диск под блокировкой записи, поэтому закрепление
+ * на {@code synchronized} остановило бы все виртуальные потоки, обслуживаемые этим носителем.
+ */
+public class VirtualThreadPinningTest {
+    private static final int TASKS = 2_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testStorageWritesDoNotPinVirtualThreads() throws Exception {
+        try (WriteAheadLog writeAheadLog = WriteAheadLog.open(directory)) {
+            InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(
+                    List.of(new FilmRangeIndex(), new FilmSearchIndex()),
+                    new WriteAheadEntityLog<>(writeAheadLog, RecordType.FILM, objectMapper.writer()));
+            InMemoryUserStorage userStorage = new InMemoryUserStorage(List.of(),
+                    new WriteAheadEntityLog<>(writeAheadLog, RecordType.USER, objectMapper.writer()));
+
+            assertNotPinned(task -> writeAndRead(filmStorage, userStorage, task));
+            assertEquals(TASKS, filmStorage.size());
+        }
+    }
+
+    @Test
+    void testColumnarStorageWritesDoNotPinVirtualThreads() throws Exception {
+        try (WriteAheadLog writeAheadLog = WriteAheadLog.open(directory)) {
+            ColumnarFilmStorage filmStorage = new ColumnarFilmStorage(
+                    List.of(new FilmRangeIndex(), new FilmSearchIndex()),
+                    new WriteAheadEntityLog<>(writeAheadLog, RecordType.FILM, objectMapper.writer()));
+            ColumnarUserStorage userStorage = new ColumnarUserStorage(List.of(),
+                    new WriteAheadEntityLog<>(writeAheadLog, RecordType.USER, objectMapper.writer()));
+
+            assertNotPinned(task -> writeAndRead(filmStorage, userStorage, task));
+            assertEquals(TASKS, filmStorage.size());
+        }
+    }
+
+    @Test
+    void testEntityCacheDoesNotPinVirtualThreads() throws Exception {
+        EntityCache<Film> cache = new EntityCache<>("films", objectMapper.writer(), Film::getId, TASKS / 2,
+                new SimpleMeterRegistry());
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(List.of(cache));
+        // Загрузка паркует поток, как чтение с диска: под блокировкой кэша это закрепило бы его за носителем.
+        LongFunction<Optional<Film>> loader = id -> {
+            LockSupport.parkNanos(100_000);
+            return filmStorage.findById(id);
+        };
+
+        assertNotPinned(task -> {
+            Film film = filmStorage.add(film("Film " + task));
+            assertTrue(cache.get(film.getId(), loader).isPresent());
+            Film update = film("Updated film " + task);
+            update.setId(film.getId());
+            filmStorage.update(update);
+            assertTrue(cache.get(film.getId(), loader).isPresent());
+            cache.get(task / 2 + 1, loader);
+        });
+    }
+
+    private static void writeAndRead(FilmStorage filmStorage, UserStorage userStorage, int task) {
+        Film film = filmStorage.add(film("Film " + task));
+        Film update = film("Updated film " + task);
+        update.setId(film.getId());
+        filmStorage.update(update);
+        userStorage.add(user("login" + task));
+        filmStorage.findPage(0, 10);
+    }
+
+    /**
+     * Запускает {@link #TASKS} задач в виртуальных потоках под записью JFR и проверяет, что ни одна
+     * не закрепилась за носителем.
+     */
+    private void assertNotPinned(IntConsumer task) throws Exception {
+        Path events = directory.resolve("pinning.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < TASKS; i++) {
+                    int index = i;
+                    futures.add(executor.submit(() -> task.accept(index)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+
+            recording.stop();
+            recording.dump(events);
+        }
+
+        List<RecordedEvent> pinned = RecordingFile.readAllEvents(events).stream()
+                .filter(event -> event.getEventType().getName().equals("jdk.VirtualThreadPinned"))
+                .toList();
+        assertTrue(pinned.isEmpty(), () -> "Виртуальные потоки закреплялись за носителем: " + pinned.get(0));
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}